@@ -3,6 +3,8 @@ package net.cytocloud.asyncsql;
 import net.cytocloud.asyncsql.api.connection.AsyncConnection;
 import net.cytocloud.asyncsql.api.connection.cache.CacheManager;
 import net.cytocloud.asyncsql.api.connection.table.Table;
+import net.cytocloud.asyncsql.api.util.ConnectionInformation;
+import net.cytocloud.asyncsql.api.util.ConnectionOptions;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
@@ -28,6 +30,17 @@ public class AsyncSQL {
         return new AsyncConnection(hostname, port, database, username, password);
     }
 
+    /**
+     * Create a new async connection
+     * @param information The information to connect
+     * @param options The options of the connection
+     * @return An instance of the connection
+     * @throws RuntimeException When the server couldn't be reached
+     */
+    public static @NotNull AsyncConnection create(@NotNull ConnectionInformation information, @NotNull ConnectionOptions options) {
+        return new AsyncConnection(information, false, options);
+    }
+
     /**
      * @return a list of all connections which are connected
      */
@@ -4,31 +4,67 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import net.cytocloud.asyncsql.AsyncSQL;
 import net.cytocloud.asyncsql.api.connection.cache.CacheManager;
+import net.cytocloud.asyncsql.api.connection.pool.ConnectionPool;
+import net.cytocloud.asyncsql.api.connection.pool.PooledConnection;
+import net.cytocloud.asyncsql.api.connection.pool.StatementCache;
+import net.cytocloud.asyncsql.api.connection.result.RowBuffer;
+import net.cytocloud.asyncsql.api.connection.result.RowPublisher;
+import net.cytocloud.asyncsql.api.connection.schema.SchemaCache;
 import net.cytocloud.asyncsql.api.connection.table.Table;
-import net.cytocloud.asyncsql.api.thread.AsyncSQLThreadWorker;
+import net.cytocloud.asyncsql.api.thread.AsyncSQLLane;
+import net.cytocloud.asyncsql.api.thread.VirtualThreads;
+import net.cytocloud.asyncsql.api.thread.future.AsyncFuture;
 import net.cytocloud.asyncsql.api.thread.future.DoneFuture;
 import net.cytocloud.asyncsql.api.thread.future.ResponseFuture;
+import net.cytocloud.asyncsql.api.thread.task.OverflowPolicy;
 import net.cytocloud.asyncsql.api.thread.task.Task;
+import net.cytocloud.asyncsql.api.thread.task.TaskPriority;
+import net.cytocloud.asyncsql.api.thread.task.TaskProperties;
+import net.cytocloud.asyncsql.api.thread.task.TaskQueue;
+import net.cytocloud.asyncsql.api.thread.task.TaskRejectedException;
 import net.cytocloud.asyncsql.api.thread.task.ThrowableConsumer;
 import net.cytocloud.asyncsql.api.thread.task.future.TaskResponseFuture;
 import net.cytocloud.asyncsql.api.util.ConnectionInformation;
+import net.cytocloud.asyncsql.api.util.ConnectionOptions;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.sql.*;
-import java.util.Queue;
+import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Getter
 public class AsyncConnection {
 
+    /** Set while the current thread executes connection tasks, such threads never wait for space in a task queue */
+    private static final ThreadLocal<Boolean> executingTasks = ThreadLocal.withInitial(() -> false);
+    /** The connection which is borrowed by the task running on the current thread */
+    private static final ThreadLocal<PooledConnection> borrowedConnection = new ThreadLocal<>();
+
     @Getter(AccessLevel.NONE)
-    private final Queue<Task<Connection, SQLException>> tasks = new ConcurrentLinkedQueue<>();
+    private final TaskQueue<Connection, SQLException> tasks;
     private final @NotNull UUID workerUUID = UUID.randomUUID();
     private final CacheManager cacheManager = new CacheManager();
+    private final SchemaCache schemaCache = new SchemaCache(this);
     private final ConnectionInformation connectionInformation;
+    private final ConnectionOptions options;
+    private final AsyncSQLLane lane;
     private final boolean reconnectActivated;
+    @Getter(AccessLevel.NONE)
+    private final ConnectionPool pool;
+    @Getter(AccessLevel.NONE)
+    private final @Nullable ExecutorService executor;
+    @Getter(AccessLevel.NONE)
+    private final @Nullable Semaphore permits;
+    @Getter(AccessLevel.NONE)
+    private final @Nullable WriteBatcher batcher;
 
     /**
      * @param hostname The hostname of the server
@@ -42,18 +78,78 @@ public class AsyncConnection {
     }
 
     public AsyncConnection(@NotNull ConnectionInformation information, @NotNull boolean reconnect) {
+        this(information, reconnect, ConnectionOptions.defaults());
+    }
+
+    /**
+     * @param information The information to connect
+     * @param reconnect Reconnect when a task fails
+     * @param options The options of the connection (e.g. the execution lane)
+     */
+    public AsyncConnection(@NotNull ConnectionInformation information, boolean reconnect, @NotNull ConnectionOptions options) {
         this.reconnectActivated=reconnect;
         this.connectionInformation=information;
+        this.options=options;
+        this.tasks = new TaskQueue<>(options.getExecutionMode() != ExecutionMode.POOLED, options.getQueueCapacity(), options.getStarvationTimeout());
+        this.lane = options.getLaneName() == null ? AsyncSQLLane.create("AsyncSQL-Lane-" + information.database()) : AsyncSQLLane.shared(options.getLaneName());
+
+        final boolean serial = options.getExecutionMode() == ExecutionMode.SERIAL;
+        final boolean virtual = options.isVirtualThreads() && VirtualThreads.isSupported();
+
+        if(serial) {
+            this.pool = new ConnectionPool(getJdbcUrl(), 1, 1, options.getIdleTimeout(), options.getValidationTimeout(), options.getStatementCacheSize());
+        }else {
+            this.pool = new ConnectionPool(getJdbcUrl(), options.getMinPoolSize(), options.getMaxPoolSize(), options.getIdleTimeout(), options.getValidationTimeout(), options.getStatementCacheSize());
+        }
+
+        if(virtual) {
+            this.executor = VirtualThreads.newExecutor("AsyncSQL-Virtual-" + information.database() + "-");
+            this.permits = new Semaphore(pool.getMaxSize());
+        }else if(serial) {
+            this.executor = null;
+            this.permits = null;
+        }else {
+            this.executor = createPoolExecutor(pool.getMaxSize());
+            this.permits = new Semaphore(pool.getMaxSize());
+        }
+
+        if(options.getBatchSize() > 1) {
+            this.batcher = new WriteBatcher(options.getBatchSize(), options.getBatchWindow(), options.getExecutionMode() != ExecutionMode.POOLED, this::submitBatch);
+        }else {
+            this.batcher = null;
+        }
+
         initConnection(0, new DoneFuture());
         AsyncSQL.registerConnection(this);
     }
 
     /**
-     * Execute a task on the current sql connection
+     * Execute a task on a connection of the pool (see {@link ExecutionMode} for the order of execution)
      * @param task A task to get the connection
      * @return An instance of the entered parameter
      */
-    public synchronized @NotNull Task<Connection, SQLException> executeConnectionTask(@NotNull ThrowableConsumer<Connection, SQLException> task){
+    public @NotNull Task<Connection, SQLException> executeConnectionTask(@NotNull ThrowableConsumer<Connection, SQLException> task){
+        return executeConnectionTask(TaskProperties.none(), task);
+    }
+
+    /**
+     * Execute a task on a connection of the pool (see {@link ExecutionMode} for the order of execution)
+     * @param priority The priority of the task
+     * @param task A task to get the connection
+     * @return An instance of the entered parameter
+     */
+    public @NotNull Task<Connection, SQLException> executeConnectionTask(@NotNull TaskPriority priority, @NotNull ThrowableConsumer<Connection, SQLException> task){
+        return executeConnectionTask(TaskProperties.of(priority), task);
+    }
+
+    /**
+     * Execute a task on a connection of the pool (see {@link ExecutionMode} for the order of execution)
+     * @param properties The properties of the task (e.g. the partition key)
+     * @param task A task to get the connection
+     * @return An instance of the entered parameter
+     * @throws TaskRejectedException When the task queue is full (see {@link ConnectionOptions#queueCapacity(int, OverflowPolicy)})
+     */
+    public @NotNull Task<Connection, SQLException> executeConnectionTask(@NotNull TaskProperties properties, @NotNull ThrowableConsumer<Connection, SQLException> task){
         Task<Connection, SQLException> rt = new Task<>() {
             @Override
             public void execute(@NotNull Connection connection) throws SQLException {
@@ -61,19 +157,54 @@ public class AsyncConnection {
             }
         };
 
+        rt.setProperties(properties);
         rt.getFutureExceptionManager().setOnThrowConsumer(e -> {
             if(!reconnectActivated) return;
-            initConnection(0, new DoneFuture().async(() -> executeConnectionTask(task)));
+            initConnection(0, new DoneFuture().async(() -> executeConnectionTask(properties, task)));
         });
 
-        tasks.add(rt);
+        if(batcher != null) batcher.flush();
+
+        enqueue(rt);
         return rt;
     }
 
+    /**
+     * @return The amount of tasks which are waiting for execution
+     */
+    public int getQueueSize() {
+        return tasks.size();
+    }
+
     public @NotNull DoneFuture update(@NotNull String query) {
+        return update(TaskProperties.none(), query);
+    }
+
+    /**
+     * @param priority The priority of the task
+     * @param query The statement to execute
+     * @return A future which is done when the statement was executed
+     */
+    public @NotNull DoneFuture update(@NotNull TaskPriority priority, @NotNull String query) {
+        return update(TaskProperties.of(priority), query);
+    }
+
+    /**
+     * @param properties The properties of the task (e.g. the partition key)
+     * @param query The statement to execute
+     * @return A future which is done when the statement was executed
+     * @apiNote The statement is combined with other updates when batching is enabled (see {@link ConnectionOptions#batching(int, long)})
+     */
+    public @NotNull DoneFuture update(@NotNull TaskProperties properties, @NotNull String query) {
         DoneFuture future = new DoneFuture();
+        future.setCallbackExecutor(options.getCallbackExecutor());
 
-        executeConnectionTask(connection -> {
+        if(batcher != null) {
+            batcher.add(properties, new WriteBatcher.Entry(query, null, future));
+            return future;
+        }
+
+        executeConnectionTask(properties, connection -> {
             Statement statement = connection.createStatement();
             statement.executeUpdate(query);
             statement.close();
@@ -84,10 +215,64 @@ public class AsyncConnection {
         return future;
     }
 
+    /**
+     * Execute a prepared statement (Cached per physical connection, see {@link ConnectionOptions#statementCacheSize(int)})
+     * @param query The statement with ? placeholders
+     * @param params The values of the placeholders
+     * @return A future which is done when the statement was executed
+     */
+    public @NotNull DoneFuture update(@NotNull String query, @Nullable Object... params) {
+        return update(TaskProperties.none(), query, params);
+    }
+
+    /**
+     * Execute a prepared statement (Cached per physical connection, see {@link ConnectionOptions#statementCacheSize(int)})
+     * @param properties The properties of the task (e.g. the partition key)
+     * @param query The statement with ? placeholders
+     * @param params The values of the placeholders
+     * @return A future which is done when the statement was executed
+     * @apiNote The statement is combined with other updates when batching is enabled (see {@link ConnectionOptions#batching(int, long)})
+     */
+    public @NotNull DoneFuture update(@NotNull TaskProperties properties, @NotNull String query, @Nullable Object... params) {
+        DoneFuture future = new DoneFuture();
+        future.setCallbackExecutor(options.getCallbackExecutor());
+
+        if(batcher != null) {
+            batcher.add(properties, new WriteBatcher.Entry(query, params == null ? new Object[0] : params, future));
+            return future;
+        }
+
+        executeConnectionTask(properties, connection -> {
+            getStatementCache().executeUpdate(query, params);
+            future.done();
+        }).getFutureExceptionManager().async(future::notifyException);
+
+        return future;
+    }
+
     public @NotNull TaskResponseFuture<ResultSet> query(@NotNull String query) {
+        return query(TaskProperties.none(), query);
+    }
+
+    /**
+     * @param priority The priority of the task
+     * @param query The query to execute
+     * @return A future of the result
+     */
+    public @NotNull TaskResponseFuture<ResultSet> query(@NotNull TaskPriority priority, @NotNull String query) {
+        return query(TaskProperties.of(priority), query);
+    }
+
+    /**
+     * @param properties The properties of the task (e.g. the partition key)
+     * @param query The query to execute
+     * @return A future of the result
+     */
+    public @NotNull TaskResponseFuture<ResultSet> query(@NotNull TaskProperties properties, @NotNull String query) {
         TaskResponseFuture<ResultSet> f = new TaskResponseFuture<>();
+        f.setCallbackExecutor(options.getCallbackExecutor());
 
-        f.setTask(executeConnectionTask(connection -> {
+        f.setTask(executeConnectionTask(properties, connection -> {
             Statement statement = connection.createStatement();
             f.response(statement.executeQuery(query));
             statement.closeOnCompletion();
@@ -96,6 +281,93 @@ public class AsyncConnection {
         return f;
     }
 
+    /**
+     * Execute a prepared query (The statement isn't cached, the result is read after the task ended)
+     * @param query The query with ? placeholders
+     * @param params The values of the placeholders
+     * @return A future of the result (Close it when it was read)
+     * @see #queryDetached(String, Object...)
+     */
+    public @NotNull TaskResponseFuture<ResultSet> query(@NotNull String query, @Nullable Object... params) {
+        return query(TaskProperties.none(), query, params);
+    }
+
+    /**
+     * Execute a prepared query (The statement isn't cached, the result is read after the task ended)
+     * @param properties The properties of the task (e.g. the partition key)
+     * @param query The query with ? placeholders
+     * @param params The values of the placeholders
+     * @return A future of the result (Close it when it was read)
+     * @apiNote The result set is read while its physical connection is already free for the next task. With {@link ExecutionMode#POOLED}
+     * or {@link ExecutionMode#PARTITIONED} another thread may use that connection meanwhile, which isn't safe with every driver.
+     * Use {@link #queryDetached(TaskProperties, String, Object...)} there (It reads the result on the connection thread and uses the statement cache).
+     */
+    public @NotNull TaskResponseFuture<ResultSet> query(@NotNull TaskProperties properties, @NotNull String query, @Nullable Object... params) {
+        TaskResponseFuture<ResultSet> f = new TaskResponseFuture<>();
+        f.setCallbackExecutor(options.getCallbackExecutor());
+
+        f.setTask(executeConnectionTask(properties, connection -> f.response(getStatementCache().executeUncachedQuery(query, params))));
+
+        return f;
+    }
+
+    /**
+     * Execute a prepared query and read the whole result on the connection thread
+     * @param query The query with ? placeholders
+     * @param params The values of the placeholders
+     * @return A future of the rows (They can be read by any thread, the connection is free for the next task)
+     */
+    public @NotNull TaskResponseFuture<RowBuffer> queryDetached(@NotNull String query, @Nullable Object... params) {
+        return queryDetached(TaskProperties.none(), query, params);
+    }
+
+    /**
+     * Execute a prepared query and read the whole result on the connection thread
+     * @param properties The properties of the task (e.g. the partition key)
+     * @param query The query with ? placeholders
+     * @param params The values of the placeholders
+     * @return A future of the rows (They can be read by any thread, the connection is free for the next task)
+     */
+    public @NotNull TaskResponseFuture<RowBuffer> queryDetached(@NotNull TaskProperties properties, @NotNull String query, @Nullable Object... params) {
+        TaskResponseFuture<RowBuffer> f = new TaskResponseFuture<>();
+        f.setCallbackExecutor(options.getCallbackExecutor());
+
+        f.setTask(executeConnectionTask(properties, connection -> {
+            try(ResultSet result = getStatementCache().executeQuery(query, params)) {
+                f.response(RowBuffer.read(result));
+            }
+        }));
+
+        return f;
+    }
+
+    /**
+     * Stream the rows of a query instead of loading the whole result (The query is executed for every subscriber)
+     * @param properties The properties of the task (e.g. the partition key)
+     * @param fetchSize The amount of rows which are fetched at once ({@link RowPublisher#STREAMING} for MySQL row by row streaming)
+     * @param query The query with ? placeholders
+     * @param params The values of the placeholders
+     * @return A publisher of the rows
+     * @apiNote A stream holds its physical connection until it completes (see {@link ConnectionOptions#streamTimeout(long)})
+     */
+    public @NotNull RowPublisher stream(@NotNull TaskProperties properties, int fetchSize, @NotNull String query, @Nullable Object... params) {
+        return new RowPublisher(query, params, fetchSize, options.getStreamTimeout(), options.getCallbackExecutor(), (work, onFailure) -> {
+            Task<Connection, SQLException> rt = new Task<>() {
+                @Override
+                public void execute(@NotNull Connection connection) throws SQLException {
+                    work.accept(connection);
+                }
+            };
+
+            rt.setProperties(properties);
+            rt.getFutureExceptionManager().async(onFailure::accept);
+
+            if(batcher != null) batcher.flush();
+
+            enqueue(rt);
+        });
+    }
+
     /**
      * Get a sql table (When not exists return null)
      * @param name The name of the table
@@ -108,6 +380,15 @@ public class AsyncConnection {
         return null;
     }
 
+    /**
+     * Get a sql table without blocking the current thread
+     * @param name The name of the table
+     * @return A future of the table (Completes with null when the table doesn't exist)
+     */
+    public @NotNull CompletableFuture<@Nullable Table> getTableAsync(@NotNull String name) {
+        return existsTable(name).thenApply(exists -> exists ? new Table(name, this) : null);
+    }
+
     /**
      * Create a table (Returns the table when exist)
      * @param name The name of the table
@@ -118,20 +399,23 @@ public class AsyncConnection {
         Table table = getTable(name);
         if(table != null) return table;
 
-        update("CREATE TABLE `" + name + "` (" + columnProperties + ")");
+        // Invalidated again when the table was created, a load in between could have cached the missing table
+        schemaCache.invalidate(name);
+        update("CREATE TABLE `" + name + "` (" + columnProperties + ")").async(() -> schemaCache.invalidate(name), AsyncFuture.INLINE);
 
         return new Table(name, this);
     }
 
     /**
-     * Check if a table exists
+     * Check if a table exists (see {@link SchemaCache})
      * @param name The name of the table
      * @return true on exists
      */
     public @NotNull ResponseFuture<Boolean> existsTable(@NotNull String name) {
         ResponseFuture<Boolean> b = new ResponseFuture<>();
+        b.setCallbackExecutor(options.getCallbackExecutor());
 
-        query("SELECT * FROM INFORMATION_SCHEMA.TABLES WHERE `TABLE_NAME` = '" + name + "'").async(r -> b.response(r.next()));
+        schemaCache.get(name).thenAccept(schema -> b.response(schema != null));
 
         return b;
     }
@@ -142,6 +426,7 @@ public class AsyncConnection {
      */
     public @NotNull ResponseFuture<Boolean> isConnected() {
         ResponseFuture<Boolean> b = new ResponseFuture<>();
+        b.setCallbackExecutor(options.getCallbackExecutor());
 
         executeConnectionTask(connection -> b.response(connection.isClosed()));
 
@@ -150,24 +435,28 @@ public class AsyncConnection {
 
     /** Disconnect the connection */
     public void disconnect() {
-        executeConnectionTask(Connection::close);
-        AsyncSQLThreadWorker.removeWorkProcess(workerUUID.toString());
+        executeConnectionTask(connection -> {
+            lane.removeWorkProcess(workerUUID + "-eviction");
+            lane.removeWorkProcess(workerUUID.toString());
+            pool.close();
+
+            if(executor != null) executor.shutdown();
+        });
     }
 
-    private DoneFuture initConnection(int attempt, @NotNull DoneFuture doneFuture) {
-        String hostname = getConnectionInformation().hostname();
-        String database = getConnectionInformation().database();
-        String username = getConnectionInformation().username();
-        String password = getConnectionInformation().password();
-        int port = getConnectionInformation().port();
+    /**
+     * @return The amount of open physical connections
+     */
+    public int getPoolSize() {
+        return pool.getSize();
+    }
 
+    private DoneFuture initConnection(int attempt, @NotNull DoneFuture doneFuture) {
         final ResponseFuture<Boolean> future = new ResponseFuture<>();
 
-        AsyncSQLThreadWorker.runAsync(() -> {
-            Connection con;
-
+        lane.runAsync(() -> {
             try {
-                con = DriverManager.getConnection("jdbc:mysql://" + hostname +":"+port+"/" + database + "?user=" + username + "&password=" + password + "&useSSL=true&autoReconnect=true");
+                pool.reset();
                 doneFuture.done();
                 future.response(false);
             } catch (SQLException e) {
@@ -175,19 +464,13 @@ public class AsyncConnection {
                 return;
             }
 
-            if(AsyncSQLThreadWorker.hasWorkProcess(workerUUID.toString()))
-                AsyncSQLThreadWorker.removeWorkProcess(workerUUID.toString());
-
-            AsyncSQLThreadWorker.addWorkProcess(workerUUID.toString(), () -> {
-                while(!tasks.isEmpty()) {
-                    Task<Connection, SQLException> task = tasks.poll();
-                    try {
-                        task.execute(con);
-                    } catch (SQLException e) {
-                        task.getFutureExceptionManager().response(e);
-                    }
-                }
-            });
+            if(lane.hasWorkProcess(workerUUID.toString()))
+                lane.removeWorkProcess(workerUUID.toString());
+
+            lane.addWorkProcess(workerUUID.toString(), this::drainTasks);
+
+            if(pool.getMaxSize() > pool.getMinSize() && !lane.hasWorkProcess(workerUUID + "-eviction"))
+                lane.runAsyncRepeating(workerUUID + "-eviction", pool::evictIdle, Math.max(1000, options.getIdleTimeout() / 2));
         });
 
         boolean b = future.syncUntilElse(10000, true);
@@ -199,4 +482,173 @@ public class AsyncConnection {
         return doneFuture;
     }
 
+    /**
+     * Enqueue a batch of updates (see {@link WriteBatcher})
+     * @param properties The properties of the batch
+     * @param entries The updates
+     */
+    private void submitBatch(@NotNull TaskProperties properties, @NotNull List<WriteBatcher.Entry> entries) {
+        Task<Connection, SQLException> rt = new Task<>() {
+            @Override
+            public void execute(@NotNull Connection connection) {
+                WriteBatcher.execute(connection, getStatementCache(), entries);
+            }
+        };
+
+        rt.setProperties(properties);
+        rt.getFutureExceptionManager().async(e -> entries.forEach(entry -> entry.future().notifyException(e)));
+
+        // The updates were already accepted by update(), so the batch doesn't wait for space in the queue
+        tasks.add(rt);
+        lane.wakeup();
+    }
+
+    private void enqueue(@NotNull Task<Connection, SQLException> task) {
+        if(executingTasks.get()) {
+            tasks.add(task);
+            lane.wakeup();
+            return;
+        }
+
+        switch(options.getOverflowPolicy()) {
+            case BLOCK:
+                offerBlocking(task);
+                break;
+            case FAIL:
+                if(!tasks.offer(task))
+                    throw new TaskRejectedException("The task queue is full (capacity: " + tasks.getCapacity() + ")");
+                break;
+            case DROP_OLDEST:
+                Task<Connection, SQLException> dropped = tasks.offerDropOldest(task);
+
+                if(dropped != null)
+                    dropped.getFutureExceptionManager().response(new SQLTransientException("The task was dropped, because the task queue is full"));
+                break;
+            case CALLER_RUNS:
+                // An ordered task can't bypass the queue (and in SERIAL the caller would compete for the only physical connection)
+                if(options.getExecutionMode() == ExecutionMode.SERIAL || (options.getExecutionMode() == ExecutionMode.PARTITIONED && task.getProperties().partitionKey() != null)) {
+                    offerBlocking(task);
+                    break;
+                }
+
+                if(!tasks.offer(task)) {
+                    runTask(task);
+                    return;
+                }
+                break;
+        }
+
+        lane.wakeup();
+    }
+
+    private void offerBlocking(@NotNull Task<Connection, SQLException> task) {
+        try {
+            if(!tasks.offer(task, options.getQueueTimeout(), TimeUnit.MILLISECONDS))
+                throw new TaskRejectedException("The task queue is still full after " + options.getQueueTimeout() + "ms (capacity: " + tasks.getCapacity() + ")");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TaskRejectedException("Interrupted while waiting for space in the task queue");
+        }
+    }
+
+    /**
+     * Work process of the lane. In {@link ExecutionMode#SERIAL} the tasks are executed directly on the lane,
+     * otherwise (or with virtual threads) they are handed to the executor as long as a physical connection is free.
+     */
+    private void drainTasks() {
+        Task<Connection, SQLException> task;
+
+        if(executor == null || permits == null) {
+            while((task = tasks.poll()) != null)
+                executeTask(task);
+
+            return;
+        }
+
+        while(tasks.hasReady() && permits.tryAcquire()) {
+            task = tasks.poll();
+
+            if(task == null) {
+                permits.release();
+                return;
+            }
+
+            final Task<Connection, SQLException> t = task;
+
+            executor.execute(() -> {
+                try {
+                    executeTask(t);
+                } finally {
+                    permits.release();
+                    lane.wakeup();
+                }
+            });
+        }
+    }
+
+    /**
+     * Execute a task which was polled from the queue
+     */
+    private void executeTask(@NotNull Task<Connection, SQLException> task) {
+        boolean executing = executingTasks.get();
+        executingTasks.set(true);
+
+        try {
+            runTask(task);
+        } finally {
+            tasks.complete(task);
+            executingTasks.set(executing);
+        }
+    }
+
+    private void runTask(@NotNull Task<Connection, SQLException> task) {
+        PooledConnection connection;
+
+        try {
+            connection = pool.borrow();
+        } catch (SQLException e) {
+            task.getFutureExceptionManager().response(e);
+            return;
+        }
+
+        PooledConnection previous = borrowedConnection.get();
+        borrowedConnection.set(connection);
+
+        try {
+            task.execute(connection.getConnection());
+        } catch (SQLException e) {
+            task.getFutureExceptionManager().response(e);
+        } finally {
+            borrowedConnection.set(previous);
+            pool.release(connection);
+        }
+    }
+
+    private @NotNull ExecutorService createPoolExecutor(int threads) {
+        final AtomicInteger count = new AtomicInteger();
+        final String name = "AsyncSQL-Pool-" + connectionInformation.database() + "-";
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> new Thread(r, name + count.incrementAndGet()));
+        executor.allowCoreThreadTimeOut(true);
+
+        return executor;
+    }
+
+    /**
+     * @return The statement cache of the connection which is borrowed by the running task
+     * @throws IllegalStateException When the current thread doesn't execute a task
+     * @apiNote Only use it inside a connection task (see {@link #executeConnectionTask(TaskProperties, ThrowableConsumer)})
+     */
+    public @NotNull StatementCache getStatementCache() {
+        PooledConnection connection = borrowedConnection.get();
+        if(connection == null) throw new IllegalStateException("The current thread doesn't execute a connection task");
+
+        return connection.getStatements();
+    }
+
+    private @NotNull String getJdbcUrl() {
+        if(options.getJdbcUrl() != null) return options.getJdbcUrl();
+        return options.getDialect().jdbcUrl(getConnectionInformation());
+    }
+
 }
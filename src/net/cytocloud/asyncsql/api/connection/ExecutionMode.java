@@ -0,0 +1,12 @@
+package net.cytocloud.asyncsql.api.connection;
+
+/**
+ * Defines how the tasks of an {@link AsyncConnection} are executed
+ */
+public enum ExecutionMode {
+
+    SERIAL,         //One physical connection. Tasks are executed one after another in submission order (by priority, but never before an earlier task with the same partition key)
+    POOLED,         //Up to the maximum pool size of physical connections. Tasks are started in submission order, but run at the same time and may complete in any order
+    PARTITIONED     //Like POOLED, but tasks with the same partition key (see TaskProperties) are executed one after another in submission order
+
+}
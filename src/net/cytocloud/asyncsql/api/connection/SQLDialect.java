@@ -0,0 +1,76 @@
+package net.cytocloud.asyncsql.api.connection;
+
+import net.cytocloud.asyncsql.api.util.ConnectionInformation;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * The sql dialect of the server, used for the jdbc url and for statements which aren't part of standard sql (e.g. upserts)
+ */
+public enum SQLDialect {
+
+    MYSQL,  //MySQL and MariaDB: INSERT ... ON DUPLICATE KEY UPDATE (needs a unique key on the key columns)
+    H2;     //H2 (e.g. as test database) in MySQL mode: MERGE INTO ... KEY (...)
+
+    /**
+     * Build the jdbc url of a server (An own url can be set by {@link net.cytocloud.asyncsql.api.util.ConnectionOptions#jdbcUrl(String)})
+     * @param information The information to connect
+     * @return The url including the login
+     */
+    public @NotNull String jdbcUrl(@NotNull ConnectionInformation information) {
+        String hostname = information.hostname();
+        String database = information.database();
+        String username = information.username();
+        String password = information.password();
+        int port = information.port();
+
+        if(this == H2)
+            return "jdbc:h2:tcp://" + hostname + ":" + port + "/" + database + ";MODE=MySQL;DATABASE_TO_UPPER=FALSE;USER=" + username + ";PASSWORD=" + password;
+
+        return "jdbc:mysql://" + hostname +":"+port+"/" + database + "?user=" + username + "&password=" + password + "&useSSL=true&autoReconnect=true&useServerPrepStmts=true&useCursorFetch=true";
+    }
+
+    /**
+     * Build a statement which inserts a row or updates the row with the same key
+     * @param table The name of the table
+     * @param columns The columns to write (including the key columns)
+     * @param values The sql values of the columns (literals or ? placeholders) in the same order
+     * @param keyColumns The columns which identify the row
+     * @return The statement
+     */
+    public @NotNull String upsert(@NotNull String table, @NotNull List<String> columns, @NotNull List<String> values, @NotNull Collection<String> keyColumns) {
+        StringJoiner c = new StringJoiner(", ");
+        StringJoiner v = new StringJoiner(", ");
+
+        columns.forEach(column -> c.add("`" + column + "`"));
+        values.forEach(v::add);
+
+        if(this == H2) {
+            StringJoiner k = new StringJoiner(", ");
+            keyColumns.forEach(column -> k.add("`" + column + "`"));
+
+            return "MERGE INTO `" + table + "` (" + c + ") KEY (" + k + ") VALUES (" + v + ")";
+        }
+
+        StringJoiner update = new StringJoiner(", ");
+
+        for(String column : columns)
+            if(!keyColumns.contains(column)) update.add("`" + column + "` = VALUES(`" + column + "`)");
+
+        // Nothing to update, the row only consists of its key
+        if(update.length() == 0) update.add("`" + columns.get(0) + "` = `" + columns.get(0) + "`");
+
+        return "INSERT INTO `" + table + "` (" + c + ") VALUES (" + v + ") ON DUPLICATE KEY UPDATE " + update;
+    }
+
+    /**
+     * @return true when {@link #upsert(String, List, List, Collection)} only works with a unique key on the key columns
+     */
+    public boolean requiresUniqueKey() {
+        return this == MYSQL;
+    }
+
+}
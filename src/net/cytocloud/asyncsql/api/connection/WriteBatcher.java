@@ -0,0 +1,187 @@
+package net.cytocloud.asyncsql.api.connection;
+
+import net.cytocloud.asyncsql.api.connection.pool.StatementCache;
+import net.cytocloud.asyncsql.api.thread.future.DoneFuture;
+import net.cytocloud.asyncsql.api.thread.task.TaskProperties;
+import net.cytocloud.asyncsql.api.thread.timer.ScheduledTask;
+import net.cytocloud.asyncsql.api.thread.timer.TimerWheel;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Gathers the updates of an {@link AsyncConnection} and submits them as one task, which executes them as JDBC batches.
+ * Only consecutive updates with the same {@link TaskProperties} (in {@link ExecutionMode#POOLED} only the same priority) are combined,
+ * an update with other properties submits the open batch first. So the batches are submitted in the order of their updates.
+ */
+class WriteBatcher {
+
+    private final int maxSize;
+    private final long window;
+    private final boolean keepPartitions;
+    private final @NotNull BiConsumer<TaskProperties, List<Entry>> submitter;
+    /** The properties of the open batch */
+    private @Nullable TaskProperties openProperties;
+    private @Nullable List<Entry> open;
+    private @Nullable ScheduledTask scheduledFlush;
+
+    /**
+     * @param maxSize The maximum amount of updates in one batch
+     * @param window The maximum time in milliseconds an update waits for other updates
+     * @param keepPartitions Only combine updates with the same partition key
+     * @param submitter Submits a batch as task (Called while the batcher is locked, so it must not block)
+     */
+    WriteBatcher(int maxSize, long window, boolean keepPartitions, @NotNull BiConsumer<TaskProperties, List<Entry>> submitter) {
+        this.maxSize=maxSize;
+        this.window=window;
+        this.keepPartitions=keepPartitions;
+        this.submitter=submitter;
+    }
+
+    /**
+     * Add an update to the open batch
+     * @param properties The properties of the update
+     * @param entry The update
+     */
+    synchronized void add(@NotNull TaskProperties properties, @NotNull Entry entry) {
+        final TaskProperties key = keepPartitions ? properties : TaskProperties.of(properties.priority());
+
+        if(open != null && !key.equals(openProperties)) submitOpen();
+
+        if(open == null) {
+            open = new ArrayList<>();
+            openProperties = key;
+        }
+
+        open.add(entry);
+
+        if(open.size() >= maxSize) {
+            submitOpen();
+        }else if(scheduledFlush == null) {
+            scheduledFlush = TimerWheel.getDefault().schedule(this::flush, window, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Submit the open batch (called before other tasks are enqueued, so they can't overtake the updates)
+     */
+    synchronized void flush() {
+        if(scheduledFlush != null) {
+            scheduledFlush.cancel();
+            scheduledFlush = null;
+        }
+
+        if(open != null) submitOpen();
+    }
+
+    /**
+     * Submitted while the batcher is locked, so a task which is enqueued after a flush on another thread (e.g. the timer) can't overtake the batch
+     */
+    private void submitOpen() {
+        final List<Entry> entries = Objects.requireNonNull(open);
+        final TaskProperties properties = Objects.requireNonNull(openProperties);
+
+        this.open = null;
+        this.openProperties = null;
+
+        submitter.accept(properties, entries);
+    }
+
+    /**
+     * Execute the updates in order. Consecutive prepared updates with the same sql share one batch, consecutive plain updates as well.
+     * @param connection The connection
+     * @param statements The statement cache of the connection
+     * @param entries The updates
+     */
+    static void execute(@NotNull Connection connection, @NotNull StatementCache statements, @NotNull List<Entry> entries) {
+        int start = 0;
+
+        while(start < entries.size()) {
+            int end = start + 1;
+
+            while(end < entries.size() && entries.get(start).isBatchableWith(entries.get(end)))
+                end++;
+
+            executeSegment(connection, statements, entries.subList(start, end));
+            start = end;
+        }
+    }
+
+    private static void executeSegment(@NotNull Connection connection, @NotNull StatementCache statements, @NotNull List<Entry> segment) {
+        if(segment.size() == 1) {
+            executeSingle(connection, statements, segment.get(0));
+            return;
+        }
+
+        try {
+            final Entry first = segment.get(0);
+
+            if(first.params() == null) {
+                try(Statement statement = connection.createStatement()) {
+                    for(Entry entry : segment)
+                        statement.addBatch(entry.sql());
+
+                    statement.executeBatch();
+                }
+            }else {
+                List<Object[]> params = new ArrayList<>();
+                segment.forEach(entry -> params.add(entry.params()));
+
+                statements.executeBatch(first.sql(), params);
+            }
+
+            segment.forEach(entry -> entry.future().done());
+        } catch (BatchUpdateException e) {
+            // Drivers either stop at the first failure or mark the failed updates, everything which didn't succeed is executed again alone
+            final int[] counts = e.getUpdateCounts();
+
+            for(int i = 0; i < segment.size(); i++) {
+                if(counts != null && i < counts.length && counts[i] != Statement.EXECUTE_FAILED) segment.get(i).future().done();
+                else executeSingle(connection, statements, segment.get(i));
+            }
+        } catch (SQLException e) {
+            segment.forEach(entry -> entry.future().notifyException(e));
+        }
+    }
+
+    private static void executeSingle(@NotNull Connection connection, @NotNull StatementCache statements, @NotNull Entry entry) {
+        try {
+            if(entry.params() == null) {
+                try(Statement statement = connection.createStatement()) {
+                    statement.executeUpdate(entry.sql());
+                }
+            }else {
+                statements.executeUpdate(entry.sql(), entry.params());
+            }
+
+            entry.future().done();
+        } catch (SQLException e) {
+            entry.future().notifyException(e);
+        }
+    }
+
+    /**
+     * A pending update
+     * @param sql The statement
+     * @param params The values of the placeholders or null for a plain statement
+     * @param future The future of the update
+     */
+    record Entry(@NotNull String sql, @Nullable Object[] params, @NotNull DoneFuture future) {
+
+        private boolean isBatchableWith(@NotNull Entry other) {
+            if(params == null) return other.params == null;
+            return other.params != null && sql.equals(other.sql);
+        }
+
+    }
+
+}
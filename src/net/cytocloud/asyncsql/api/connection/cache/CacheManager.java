@@ -2,17 +2,19 @@ package net.cytocloud.asyncsql.api.connection.cache;
 
 import net.cytocloud.asyncsql.api.connection.cache.cached.CachedTable;
 import net.cytocloud.asyncsql.api.connection.cache.cached.CachedTableRow;
+import net.cytocloud.asyncsql.api.thread.task.TaskPriority;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Predicate;
 
 public class CacheManager {
 
-    private final List<CachedTable> tables = new ArrayList<>();
+    private final List<CachedTable> tables = new CopyOnWriteArrayList<>();
 
     /**
      * <b>Only for Internal use</b>
@@ -41,10 +43,10 @@ public class CacheManager {
     }
 
     /**
-     * Upload all cached table data
+     * Upload all cached table data (with background priority, so lookups aren't waiting for the upload)
      */
     public void uploadAll() {
-        getFullCachedTableData().forEach((cachedTable, map) -> cachedTable.upload());
+        getFullCachedTableData().forEach((cachedTable, map) -> cachedTable.upload(TaskPriority.BACKGROUND));
     }
 
     /**
@@ -59,7 +61,7 @@ public class CacheManager {
      * @param filter Filter the uploading entries
      */
     public void uploadFiltered(Predicate<? super Map.Entry<CachedTable, Map<String, CachedTableRow>>> filter) {
-        getFullCachedTableData().entrySet().stream().filter(filter).forEach(entry -> entry.getKey().upload());
+        getFullCachedTableData().entrySet().stream().filter(filter).forEach(entry -> entry.getKey().upload(TaskPriority.BACKGROUND));
     }
 
     /**
@@ -1,24 +1,78 @@
 package net.cytocloud.asyncsql.api.connection.cache.cached;
 
+import lombok.AccessLevel;
 import lombok.Getter;
+import net.cytocloud.asyncsql.api.connection.cache.cached.eviction.EvictionCause;
+import net.cytocloud.asyncsql.api.connection.cache.cached.eviction.EvictionListener;
+import net.cytocloud.asyncsql.api.connection.cache.cached.eviction.EvictionPolicy;
+import net.cytocloud.asyncsql.api.connection.cache.cached.eviction.Weigher;
 import net.cytocloud.asyncsql.api.connection.cache.cached.resolver.ColumnDataResolver;
 import net.cytocloud.asyncsql.api.connection.table.Table;
+import net.cytocloud.asyncsql.api.thread.AsyncSQLThreadWorker;
+import net.cytocloud.asyncsql.api.thread.future.AsyncFuture;
+import net.cytocloud.asyncsql.api.thread.future.DoneFuture;
+import net.cytocloud.asyncsql.api.thread.task.TaskPriority;
+import net.cytocloud.asyncsql.api.thread.task.TaskProperties;
+import net.cytocloud.asyncsql.api.thread.task.future.TaskResponseFuture;
+import net.cytocloud.asyncsql.api.thread.task.future.exception.FutureException;
+import net.cytocloud.asyncsql.api.thread.timer.ScheduledTask;
+import net.cytocloud.asyncsql.api.thread.timer.TimerWheel;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.HashMap;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A cache of the rows of a table by the value of the selection column. The cache can be used by multiple threads,
+ * reading a cached row never blocks. A missing row is loaded at most once at the same time, every caller gets the same result.
+ * The cache is unbounded unless an {@link EvictionPolicy} is set.
+ * Expired rows are removed or downloaded in the background (by the {@link TimerWheel#getDefault() default timer} and the {@link AsyncSQLThreadWorker}),
+ * even when nobody reads them.
+ */
 @Getter
 public class CachedTable {
 
+    /** The maximum amount of expired rows which are handled at once, before other work of the worker thread is executed */
+    private static final int SWEEP_SLICE = 64;
+
     private final @NotNull Table table;
     private final @NotNull String selectionColumn;
-    private final @NotNull Map<String, CachedTableRow> cache = new HashMap<>();
+    private final @NotNull Map<String, CachedTableRow> cache = new ConcurrentHashMap<>();
     private final @NotNull ColumnDataResolver resolver;
     private final @NotNull ExpirationAction action;
     private final long expiration;
+    private final @NotNull List<EvictionListener> evictionListeners = new CopyOnWriteArrayList<>();
+    private volatile @Nullable EvictionPolicy evictionPolicy = null;
+    private volatile @NotNull Weigher weigher = Weigher.SINGLETON;
+    private volatile double refreshAhead = 0;
+    /** Guards the eviction policy */
+    @Getter(AccessLevel.NONE)
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    /** Evicted rows whose changes are still uploaded, a miss takes them back instead of reading the old values */
+    @Getter(AccessLevel.NONE)
+    private final Map<String, CachedTableRow> writingBack = new ConcurrentHashMap<>();
+    /** The running loads of rows which aren't cached (see {@link #loadAsync(String, Map)}) */
+    @Getter(AccessLevel.NONE)
+    private final Map<String, CompletableFuture<CachedTableRow>> loading = new ConcurrentHashMap<>();
+    /** Expired rows which wait for the sweep */
+    @Getter(AccessLevel.NONE)
+    private final Queue<CachedTableRow> expiredRows = new ConcurrentLinkedQueue<>();
+    @Getter(AccessLevel.NONE)
+    private final AtomicBoolean sweeping = new AtomicBoolean(false);
 
     protected CachedTable(@NotNull ExpirationAction action, long expiration, @NotNull Table table, @NotNull String selectionColumn, @NotNull ColumnDataResolver resolver) {
         this.action=action;
@@ -36,45 +90,39 @@ public class CachedTable {
      * @return A cached table row
      */
     public @NotNull CachedTableRow getOrDefault(@NotNull String value, @NotNull Map<String, String> columnValues) {
-        CachedTableRow r = get(value);
+        CachedTableRow row = cache.get(value);
 
-        if(r != null)
-            return r;
+        if(row != null && (row = hit(value, row)) != null)
+            return row;
 
-        table.insert(columnValues).sync();
-        return Objects.requireNonNull(get(value));
+        return Objects.requireNonNull(join(loadAsync(value, columnValues)));
     }
 
     /**
-     * Load and get a table value
+     * Load and get a table value. An expired row is returned with its current values
+     * while it is downloaded in the background ({@link ExpirationAction#DOWNLOAD}).
      * @param value The value
-     * @return A cached table row or null when there is nothing in the table
-     * @throws IllegalAccessError When the value can't be downloaded
+     * @return A cached table row or null when there is nothing in the table (or the row expired with {@link ExpirationAction#DELETE})
+     * @see #getAsync(String)
      */
     public @Nullable CachedTableRow get(@NotNull String value) {
-        if(has(value)) {
-            final CachedTableRow row = cache.get(value);
-
-            if(row.isExpired()) {
-                if(action == ExpirationAction.DELETE) {
-                    cache.remove(value);
-                    return null;
-                }else {
-                    row.download();
-                    return row;
-                }
-            }
-
-            return row;
-        }
-
-        CachedTableRow row = getFromSQL(value);
+        final CachedTableRow row = cache.get(value);
 
-        if(row == null) return null;
+        if(row != null) return hit(value, row);
+        return join(loadAsync(value, null));
+    }
 
-        cache.put(value, row);
+    /**
+     * Load and get a table value without blocking the current thread. Concurrent misses of the same value
+     * (also by {@link #get(String)}) share one query and its result.
+     * @param value The value
+     * @return A future of the cached table row (null like {@link #get(String)}), completed on the callback executor of the connection
+     */
+    public @NotNull CompletableFuture<@Nullable CachedTableRow> getAsync(@NotNull String value) {
+        final CachedTableRow row = cache.get(value);
 
-        return row;
+        if(row != null) return CompletableFuture.completedFuture(hit(value, row));
+        return AsyncFuture.completeOn(loadAsync(value, null), table.getConnection().getOptions().getCallbackExecutor());
     }
 
     /**
@@ -83,20 +131,30 @@ public class CachedTable {
      * @return The removed cached table row
      */
     public @Nullable CachedTableRow remove(@NotNull String value) {
-        CachedTableRow row = cache.remove(value);
+        CachedTableRow row = removeFromCache(value);
 
-        if(hasOnSQL(value))
-            this.table.remove("`" + getSelectionColumn() + "` = " + getResolver().export(getSelectionColumn(), value));
+        this.writingBack.remove(value);
+        this.table.removeWhere("`" + getSelectionColumn() + "` = ?", getTaskProperties(value), value);
 
         return row;
     }
 
     /**
-     * Remove a value from the cache
+     * Remove a value from the cache. A load of the value which is still running doesn't cache its row anymore.
      * @param value The value
      */
     public @Nullable CachedTableRow removeFromCache(@NotNull String value) {
-        return cache.remove(value);
+        // Before the row is removed, see cacheLoaded
+        loading.remove(value);
+
+        CachedTableRow row = cache.remove(value);
+
+        if(row != null) {
+            forget(value);
+            cancelExpiry(row);
+        }
+
+        return row;
     }
 
     /**
@@ -109,7 +167,7 @@ public class CachedTable {
     }
 
     public boolean hasOnSQL(@NotNull String value) {
-        return getTable().hasEntry("`"+ getSelectionColumn() + "` = " + getResolver().export(getSelectionColumn(), value)).sync();
+        return getTable().hasEntryWhere("`"+ getSelectionColumn() + "` = ?", getTaskProperties(value), value).sync();
     }
 
     /**
@@ -119,29 +177,109 @@ public class CachedTable {
      * @return The associated cached table row
      */
     public @NotNull CachedTableRow set(@NotNull String value, @NotNull Map<String, Object> columnValues) {
-        CachedTableRow row = get(value);
+        while(true) {
+            CachedTableRow row = cache.get(value);
+            if(row == null) row = join(loadAsync(value, null));
+
+            if(row == null) {
+                final CachedTableRow created = new CachedTableRow(this, columnValues, value, selectionColumn);
+
+                if((row = cache.putIfAbsent(value, created)) == null) {
+                    created.upload();
+                    inserted(created);
+
+                    return created;
+                }
+            }
 
-        if(row == null) {
-            row = new CachedTableRow(this, columnValues, value, selectionColumn);
+            row.setValues(columnValues);
+            row.refreshExpiration();
 
-            getCache().put(value, row);
-            row.upload();
+            // The row was evicted or removed meanwhile, the values are set on the row which is cached now
+            if(cache.get(value) != row) continue;
 
+            recordWrite(row);
             return row;
         }
+    }
 
-        row.refreshExpiration();
-        row.getValues().clear();
-        row.getValues().putAll(columnValues);
+    /**
+     * Bound the size of the cache. When the cache is above the maximum of the policy, the policy selects the rows
+     * which are evicted. Unsaved changes of an evicted row are uploaded (see {@link CachedTableRow#isDirty()}).
+     * @param policy The policy (e.g. {@link EvictionPolicy#tinyLfu(long)}) or null for an unbounded cache
+     * @return An instance of this
+     * @apiNote Reads are recorded without waiting for the policy, a read is skipped when another thread uses the policy
+     */
+    public @NotNull CachedTable evictionPolicy(@Nullable EvictionPolicy policy) {
+        final List<String> victims = new ArrayList<>();
 
-        return row;
+        evictionLock.lock();
+        try {
+            this.evictionPolicy = policy;
+
+            if(policy != null) {
+                cache.values().forEach(row -> policy.record(row.getValue(), weigher.weigh(row)));
+                collectVictims(policy, victims);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+
+        evictAll(victims);
+        return this;
+    }
+
+    /**
+     * Set how much a row counts against the maximum of the eviction policy (Set it before the policy)
+     * @param weigher The weigher ({@link Weigher#SINGLETON} by default)
+     * @return An instance of this
+     */
+    public @NotNull CachedTable weigher(@NotNull Weigher weigher) {
+        this.weigher=weigher;
+        return this;
+    }
+
+    /**
+     * Refresh-ahead for {@link ExpirationAction#DOWNLOAD}: a row which is read after this fraction of the expiration time
+     * is downloaded in the background, the reader gets the current values immediately. So frequently read rows are
+     * refreshed before they expire and a reader never waits for the sql. Rows which aren't read expire as usual.
+     * @param fraction The fraction of the expiration time (e.g. 0.8), 0 to disable refresh-ahead
+     * @return An instance of this
+     * @apiNote Only one download per row is running at the same time, rows with unsaved changes aren't downloaded
+     */
+    public @NotNull CachedTable refreshAhead(double fraction) {
+        if(fraction < 0 || fraction >= 1) throw new IllegalArgumentException("The fraction must be at least 0 and less than 1 (" + fraction + ")");
+
+        this.refreshAhead=fraction;
+        return this;
+    }
+
+    /**
+     * @param listener Called for every evicted row
+     * @return An instance of this
+     */
+    public @NotNull CachedTable addEvictionListener(@NotNull EvictionListener listener) {
+        this.evictionListeners.add(listener);
+        return this;
+    }
+
+    public void removeEvictionListener(@NotNull EvictionListener listener) {
+        this.evictionListeners.remove(listener);
     }
 
     /**
      * Upload all data
      */
     public void upload() {
-        cache.forEach((s, r) -> r.upload());
+        upload(TaskPriority.NORMAL);
+    }
+
+    /**
+     * Upload all data
+     * @param priority The priority of the upload statements
+     */
+    public void upload(@NotNull TaskPriority priority) {
+        cache.forEach((s, r) -> r.upload(priority));
     }
 
     /**
@@ -151,8 +289,368 @@ public class CachedTable {
         cache.forEach((s, r) -> r.download());
     }
 
+    /**
+     * Handle a read of a cached row
+     * @param value The value
+     * @param row The cached row
+     * @return The row or null when it expired with {@link ExpirationAction#DELETE}
+     */
+    private @Nullable CachedTableRow hit(@NotNull String value, @NotNull CachedTableRow row) {
+        if(row.isExpired()) {
+            if(action == ExpirationAction.DELETE) {
+                forget(value);
+                evict(row, EvictionCause.EXPIRED);
+                return null;
+            }
+
+            // Normally the sweep already downloads it, the timer can be a tick late
+            queueExpired(row);
+            return row;
+        }
+
+        if(refreshAhead > 0 && action == ExpirationAction.DOWNLOAD && !row.isDownloading() && row.isExpired(refreshAhead)) {
+            CompletableFuture<Boolean> download = row.downloadAhead(refreshAhead);
+            if(download != null) reloaded(row, download);
+        }
+
+        recordAccess(value);
+        return row;
+    }
+
+    /**
+     * Load a row which isn't cached. Only one load per value is running, later callers get the same future.
+     * An evicted row which is still uploaded is taken back.
+     * @param value The value
+     * @param defaults The column values which are inserted when the row isn't in the table or null to insert nothing
+     * @return A future of the cached row or null when there is nothing in the table
+     * @apiNote The future is completed on the connection thread, the cache map is never locked while the sql is queried
+     */
+    private @NotNull CompletableFuture<@Nullable CachedTableRow> loadAsync(@NotNull String value, @Nullable Map<String, String> defaults) {
+        final CompletableFuture<CachedTableRow> future = new CompletableFuture<>();
+        final CompletableFuture<CachedTableRow> running = loading.putIfAbsent(value, future);
+
+        if(running != null) {
+            if(defaults == null) return running;
+
+            // The running load doesn't insert, so the defaults are inserted after it when it found nothing
+            return running.thenCompose(row -> row != null ? CompletableFuture.completedFuture(row) : loadAsync(value, defaults));
+        }
+
+        // The row may have been cached before this load was registered
+        CachedTableRow row = cache.get(value);
+
+        if(row == null && (row = writingBack.get(value)) != null)
+            row = cacheLoaded(future, row);
+
+        if(row != null) finishLoad(value, future, row, null);
+        else query(value, defaults, future);
+
+        return future;
+    }
+
+    private void query(@NotNull String value, @Nullable Map<String, String> defaults, @NotNull CompletableFuture<CachedTableRow> future) {
+        final TaskResponseFuture<ResultSet> query = queryFromSQL(value, TaskPriority.INTERACTIVE);
+
+        // Read on the connection thread
+        query.async(set -> {
+            final CachedTableRow row;
+
+            try(set) {
+                row = CachedTableRow.fromResultSet(this, selectionColumn, value, set, resolver);
+            } catch (SQLException | RuntimeException e) {
+                finishLoad(value, future, null, e);
+                return;
+            }
+
+            if(row != null) finishLoad(value, future, cacheLoaded(future, row), null);
+            else if(defaults == null) finishLoad(value, future, null, null);
+            else insertDefaults(value, defaults, future);
+        }, AsyncFuture.INLINE);
+
+        query.toCompletableFuture().whenComplete((v, e) -> {
+            if(e != null) finishLoad(value, future, null, e);
+        });
+    }
+
+    private void insertDefaults(@NotNull String value, @NotNull Map<String, String> defaults, @NotNull CompletableFuture<CachedTableRow> future) {
+        final DoneFuture insert = table.insert(defaults, getTaskProperties(value));
+
+        insert.async(() -> query(value, null, future), AsyncFuture.INLINE);
+        insert.toCompletableFuture().whenComplete((v, e) -> {
+            if(e != null) finishLoad(value, future, null, e);
+        });
+    }
+
+    /**
+     * @param future The future of the load
+     * @param row A loaded row
+     * @return The row or the row which was cached meanwhile (e.g. by {@link #set(String, Map)})
+     * @apiNote The row isn't cached when the value was removed during the load (It is still returned to the callers of the load)
+     */
+    private @NotNull CachedTableRow cacheLoaded(@NotNull CompletableFuture<CachedTableRow> future, @NotNull CachedTableRow row) {
+        final String value = row.getValue();
+        final CachedTableRow cached = cache.putIfAbsent(value, row);
+        if(cached != null) return cached;
+
+        // removeFromCache unregisters the load before it removes the row, so either it removes this row or the load sees that it was removed
+        if(loading.get(value) != future) {
+            cache.remove(value, row);
+            return row;
+        }
+
+        inserted(row);
+        return row;
+    }
+
+    private void finishLoad(@NotNull String value, @NotNull CompletableFuture<CachedTableRow> future, @Nullable CachedTableRow row, @Nullable Throwable exception) {
+        loading.remove(value, future);
+
+        if(exception != null) future.completeExceptionally(exception);
+        else future.complete(row);
+    }
+
+    /**
+     * Wait for a load like the sync methods of the futures
+     * @param future The future of the load
+     * @return The loaded row
+     */
+    private static @Nullable CachedTableRow join(@NotNull CompletableFuture<CachedTableRow> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new FutureException(e.getCause());
+        }
+    }
+
+    /**
+     * A row was added to the cache
+     * @param row The row
+     */
+    private void inserted(@NotNull CachedTableRow row) {
+        scheduleExpiry(row);
+        recordWrite(row);
+    }
+
+    /**
+     * Check the row on the timer when it expires. The check is moved when the expiration was refreshed meanwhile.
+     * @param row The row
+     */
+    private void scheduleExpiry(@NotNull CachedTableRow row) {
+        final long time = row.getExpirationTime();
+        if(time == Long.MAX_VALUE) return;
+
+        synchronized(row) {
+            ScheduledTask previous = row.expiryTask;
+
+            row.expiryTask = TimerWheel.getDefault().schedule(() -> expiryDue(row), time - System.currentTimeMillis(), TimeUnit.MILLISECONDS, AsyncFuture.INLINE);
+            if(previous != null) previous.cancel();
+        }
+    }
+
+    private static void cancelExpiry(@NotNull CachedTableRow row) {
+        synchronized(row) {
+            ScheduledTask task = row.expiryTask;
+
+            row.expiryTask = null;
+            if(task != null) task.cancel();
+        }
+    }
+
+    /**
+     * Called on the timer thread, so it only queues the row for the sweep
+     * @param row The row
+     */
+    private void expiryDue(@NotNull CachedTableRow row) {
+        if(cache.get(row.getValue()) != row) return;
+
+        if(!row.isExpired()) scheduleExpiry(row);
+        else queueExpired(row);
+    }
+
+    private void queueExpired(@NotNull CachedTableRow row) {
+        if(!row.expiryQueued.compareAndSet(false, true)) return;
+
+        expiredRows.add(row);
+        if(sweeping.compareAndSet(false, true)) AsyncSQLThreadWorker.runAsync(this::sweep);
+    }
+
+    /**
+     * Expire a slice of the queued rows. When more rows are queued, the next slice is executed after the other work of the worker thread.
+     */
+    private void sweep() {
+        for(int i = 0; i < SWEEP_SLICE; i++) {
+            CachedTableRow row = expiredRows.poll();
+            if(row == null) break;
+
+            row.expiryQueued.set(false);
+            expire(row);
+        }
+
+        if(!expiredRows.isEmpty()) {
+            AsyncSQLThreadWorker.runAsync(this::sweep);
+            return;
+        }
+
+        sweeping.set(false);
+
+        // A row may have been queued after the last poll, while the sweep was still marked as running
+        if(!expiredRows.isEmpty() && sweeping.compareAndSet(false, true)) AsyncSQLThreadWorker.runAsync(this::sweep);
+    }
+
+    private void expire(@NotNull CachedTableRow row) {
+        final String value = row.getValue();
+
+        if(cache.get(value) != row) return;
+
+        if(!row.isExpired()) {
+            scheduleExpiry(row);
+            return;
+        }
+
+        if(action == ExpirationAction.DELETE) {
+            forget(value);
+            evict(row, EvictionCause.EXPIRED);
+            return;
+        }
+
+        if(row.isDirty()) {
+            // A download would overwrite the changes which weren't uploaded yet, the row is checked again after the next expiration
+            row.refreshExpiration();
+            scheduleExpiry(row);
+            return;
+        }
+
+        reloaded(row, row.downloadAsync());
+    }
+
+    /**
+     * Handle the end of a background download of a row, the current values are still returned meanwhile
+     * @param row The row
+     * @param download The download
+     */
+    private void reloaded(@NotNull CachedTableRow row, @NotNull CompletableFuture<Boolean> download) {
+        final String value = row.getValue();
+
+        download.whenComplete((found, e) -> {
+            if(e != null) {
+                // Keep the current values until the next expiration
+                e.printStackTrace();
+                row.refreshExpiration();
+            }else if(!found) {
+                // The row was deleted from the sql
+                forget(value);
+                evict(row, EvictionCause.EXPIRED);
+                return;
+            }
+
+            scheduleExpiry(row);
+        });
+    }
+
+    private void recordAccess(@NotNull String value) {
+        final EvictionPolicy policy = this.evictionPolicy;
+        if(policy == null || !evictionLock.tryLock()) return;
+
+        try {
+            policy.access(value);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * A row was cached or changed, evict the rows above the maximum
+     * @param row The row
+     */
+    private void recordWrite(@NotNull CachedTableRow row) {
+        final EvictionPolicy policy = this.evictionPolicy;
+        if(policy == null) return;
+
+        final long weight = weigher.weigh(row);
+        final List<String> victims = new ArrayList<>();
+
+        evictionLock.lock();
+        try {
+            policy.record(row.getValue(), weight);
+            collectVictims(policy, victims);
+        } finally {
+            evictionLock.unlock();
+        }
+
+        evictAll(victims);
+    }
+
+    private void forget(@NotNull String value) {
+        final EvictionPolicy policy = this.evictionPolicy;
+        if(policy == null) return;
+
+        evictionLock.lock();
+        try {
+            policy.remove(value);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static void collectVictims(@NotNull EvictionPolicy policy, @NotNull List<String> victims) {
+        String victim;
+
+        while((victim = policy.evict()) != null)
+            victims.add(victim);
+    }
+
+    private void evictAll(@NotNull List<String> victims) {
+        for(String victim : victims) {
+            CachedTableRow row = cache.get(victim);
+            if(row != null) evict(row, EvictionCause.SIZE);
+        }
+    }
+
+    /**
+     * Remove a row from the cache, its unsaved changes are uploaded
+     * @param row The row
+     * @param cause Why the row is evicted
+     */
+    private void evict(@NotNull CachedTableRow row, @NotNull EvictionCause cause) {
+        final String value = row.getValue();
+        final boolean dirty = row.isDirty();
+
+        // Set aside before the removal, so a miss in between doesn't read the old values from the sql
+        if(dirty) writingBack.put(value, row);
+
+        if(!cache.remove(value, row)) {
+            if(dirty) writingBack.remove(value, row);
+            return;
+        }
+
+        cancelExpiry(row);
+        if(dirty) row.upload().toCompletableFuture().whenComplete((v, e) -> writingBack.remove(value, row));
+
+        evictionListeners.forEach(listener -> listener.onEviction(row, cause));
+    }
+
     public @Nullable CachedTableRow getFromSQL(@NotNull String value) {
-        return CachedTableRow.fromResultSet(this, value, selectionColumn, table.selectAll("`" + selectionColumn + "` = '" + value + "'", 1), resolver);
+        return CachedTableRow.fromResultSet(this, value, selectionColumn, queryFromSQL(value, TaskPriority.INTERACTIVE), resolver);
+    }
+
+    /**
+     * @param value The value
+     * @param priority The priority of the query
+     * @return A future of the row of the value (at most one)
+     */
+    public @NotNull TaskResponseFuture<ResultSet> queryFromSQL(@NotNull String value, @NotNull TaskPriority priority) {
+        return table.selectWhere("`" + selectionColumn + "` = ?", 1, getTaskProperties(value).withPriority(priority), value);
+    }
+
+    /**
+     * The statements of a row are partitioned by the table and the selection value,
+     * so they keep their order in {@link net.cytocloud.asyncsql.api.connection.ExecutionMode#PARTITIONED}
+     * @param value The selection value
+     * @return The task properties for statements of the row
+     */
+    public @NotNull TaskProperties getTaskProperties(@NotNull String value) {
+        return TaskProperties.keyed(List.of(table.getName(), value));
     }
 
     public static CachedTable from(@NotNull ExpirationAction action, @NotNull Table table, @NotNull String selectionColumn, @NotNull ColumnDataResolver resolver) {
@@ -1,26 +1,51 @@
 package net.cytocloud.asyncsql.api.connection.cache.cached;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import net.cytocloud.asyncsql.api.connection.cache.cached.resolver.ColumnDataResolver;
+import net.cytocloud.asyncsql.api.thread.future.AsyncFuture;
+import net.cytocloud.asyncsql.api.thread.future.DoneFuture;
+import net.cytocloud.asyncsql.api.thread.task.TaskPriority;
+import net.cytocloud.asyncsql.api.thread.task.TaskProperties;
 import net.cytocloud.asyncsql.api.thread.task.future.TaskResponseFuture;
+import net.cytocloud.asyncsql.api.thread.timer.ScheduledTask;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * A cached row. The values are replaced as a whole (copy on write), so readers never block and always see a consistent row.
+ */
 @Getter
 public class CachedTableRow {
 
     private final @NotNull CachedTable table;
-    private final @NotNull Map<String, Object> values;
+    /** An unmodifiable snapshot, replaced by {@link #setValues(Map)} and {@link #set(String, Object)} */
+    private volatile @NotNull Map<String, Object> values;
     private final @NotNull String value, selectionColumn;
-    private long currentTime;
+    private volatile long currentTime;
+    /** true when the values were changed since the last upload or download */
+    private volatile boolean dirty = false;
+    /** The pending reload or null (see {@link #downloadAsync()}) */
+    @Getter(AccessLevel.NONE)
+    private volatile @Nullable CompletableFuture<Boolean> reload;
+    /** The expiry check of the table on the timer */
+    @Getter(AccessLevel.NONE)
+    @Nullable ScheduledTask expiryTask;
+    /** true while the row waits for the expiry sweep of the table */
+    @Getter(AccessLevel.NONE)
+    final AtomicBoolean expiryQueued = new AtomicBoolean(false);
 
     protected CachedTableRow(@NotNull CachedTable table, @NotNull Map<String, Object> values, @NotNull String value, @NotNull String selectionColumn) {
-        this.values=values;
+        this.values=Collections.unmodifiableMap(new HashMap<>(values));
         this.value=value;
         this.table=table;
         this.selectionColumn=selectionColumn;
@@ -28,10 +53,28 @@ public class CachedTableRow {
     }
 
     public boolean isExpired() {
+        return System.currentTimeMillis() >= getExpirationTime();
+    }
+
+    /**
+     * @param fraction The fraction of the expiration time (0 - 1)
+     * @return true when the fraction of the expiration time has passed since the last refresh
+     */
+    public boolean isExpired(double fraction) {
         long e = this.getTable().getExpiration();
 
         if(e == -1) return false;
-        return System.currentTimeMillis() >= currentTime + e;
+        return System.currentTimeMillis() >= currentTime + (long) (e * fraction);
+    }
+
+    /**
+     * @return The time in milliseconds when the row expires or {@link Long#MAX_VALUE} when it doesn't expire
+     */
+    public long getExpirationTime() {
+        long e = this.getTable().getExpiration();
+
+        if(e == -1) return Long.MAX_VALUE;
+        return currentTime + e;
     }
 
     public <T> T get(String column) {
@@ -42,16 +85,57 @@ public class CachedTableRow {
         return values.get(column);
     }
 
+    /**
+     * Change the cached value of a column (It isn't uploaded)
+     * @param column The column
+     * @param object The new value
+     */
+    public synchronized void set(@NotNull String column, @Nullable Object object) {
+        Map<String, Object> copy = new HashMap<>(values);
+        copy.put(column, object);
+
+        this.values = Collections.unmodifiableMap(copy);
+        this.dirty = true;
+    }
+
+    /**
+     * Replace every cached value (They aren't uploaded)
+     * @param values The new values
+     */
+    public synchronized void setValues(@NotNull Map<String, Object> values) {
+        this.values = Collections.unmodifiableMap(new HashMap<>(values));
+        this.dirty = true;
+    }
+
     /**
      * Uploading the current cached values
+     * @return The future of the upload statement
      */
-    public void upload() {
-        if(isOnSQL()) {
-            getTable().getTable().updateMultiple(exportSQLFormat(), "`" + selectionColumn + "` = '" + value + "'");
-            return;
-        }
+    public @NotNull DoneFuture upload() {
+        return upload(TaskPriority.NORMAL);
+    }
+
+    /**
+     * Uploading the current cached values (One upsert statement, see {@link net.cytocloud.asyncsql.api.connection.table.Table#upsertValues(Map, java.util.Collection, TaskProperties)})
+     * @param priority The priority of the upload statement
+     * @return The future of the upload statement
+     */
+    public @NotNull DoneFuture upload(@NotNull TaskPriority priority) {
+        final TaskProperties properties = getTable().getTaskProperties(value).withPriority(priority);
+
+        // Cleared before the values are exported, so a change during the upload marks the row again
+        this.dirty = false;
+
+        final Map<String, Object> parameters = exportParameters();
+        final DoneFuture future = parameters != null
+                ? getTable().getTable().upsertValues(parameters, List.of(selectionColumn), properties)
+                : getTable().getTable().upsert(exportSQLFormat(), List.of(selectionColumn), properties);
 
-        getTable().getTable().insert(exportSQLFormat());
+        future.toCompletableFuture().whenComplete((v, e) -> {
+            if(e != null) this.dirty = true;
+        });
+
+        return future;
     }
 
     /**
@@ -62,9 +146,77 @@ public class CachedTableRow {
         CachedTableRow row = this.table.getFromSQL(this.value);
         if(row == null) throw new IllegalAccessError("Unable to download the table row from the sql (Nothing found for value \"" + value + "\")");
 
+        synchronized(this) {
+            this.values = row.getValues();
+            this.dirty = false;
+        }
+
         this.refreshExpiration();
-        values.clear();
-        this.values.putAll(row.getValues());
+    }
+
+    /**
+     * Downloads from the sql without blocking the current thread. While a download is running, the same future is returned.
+     * @return A future which completes with false when the value wasn't found (the cached values are kept then)
+     */
+    public synchronized @NotNull CompletableFuture<Boolean> downloadAsync() {
+        if(reload != null) return reload;
+
+        final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        final TaskResponseFuture<ResultSet> query = table.queryFromSQL(value, TaskPriority.NORMAL);
+
+        this.reload = result;
+
+        // Read on the connection thread, the result is completed without the callback executor
+        query.async(set -> {
+            try(set) {
+                CachedTableRow row = fromResultSet(table, selectionColumn, value, set, table.getResolver());
+
+                synchronized(this) {
+                    // Local changes which weren't uploaded are kept
+                    if(row != null && !dirty) this.values = row.getValues();
+                }
+
+                if(row != null) this.refreshExpiration();
+
+                finishReload(result, row != null, null);
+            } catch (SQLException | RuntimeException e) {
+                finishReload(result, false, e);
+            }
+        }, AsyncFuture.INLINE);
+
+        query.toCompletableFuture().whenComplete((v, e) -> {
+            if(e != null) finishReload(result, false, e);
+        });
+
+        return result;
+    }
+
+    /**
+     * Refresh-ahead: download in the background when the fraction of the expiration time has passed since the last refresh
+     * @param fraction The fraction of the expiration time (0 - 1)
+     * @return The future of the started download or null when the row isn't due, has unsaved changes or is already downloading
+     * @apiNote Checked while the row is locked, so a row which was just downloaded by another thread isn't downloaded again
+     */
+    public synchronized @Nullable CompletableFuture<Boolean> downloadAhead(double fraction) {
+        if(reload != null || dirty || !isExpired(fraction)) return null;
+
+        return downloadAsync();
+    }
+
+    /**
+     * @return true while a download of {@link #downloadAsync()} is running
+     */
+    public boolean isDownloading() {
+        return reload != null;
+    }
+
+    private void finishReload(@NotNull CompletableFuture<Boolean> result, boolean found, @Nullable Throwable exception) {
+        synchronized(this) {
+            if(reload == result) reload = null;
+        }
+
+        if(exception != null) result.completeExceptionally(exception);
+        else result.complete(found);
     }
 
     public @NotNull Map<String, String> exportSQLFormat() {
@@ -76,6 +228,24 @@ public class CachedTableRow {
         return map;
     }
 
+    /**
+     * @return The values as parameters of a prepared statement or null when the resolver doesn't support parameters
+     * @see ColumnDataResolver#toParameter(String, Object)
+     */
+    public @Nullable Map<String, Object> exportParameters() {
+        final Map<String, Object> map = new HashMap<>();
+        final ColumnDataResolver r = this.getTable().getResolver();
+
+        for(Map.Entry<String, Object> entry : this.values.entrySet()) {
+            Object parameter = r.toParameter(entry.getKey(), entry.getValue());
+            if(parameter == null) return null;
+
+            map.put(entry.getKey(), parameter);
+        }
+
+        return map;
+    }
+
     /**
      * Refreshes the expiration time
      */
@@ -92,7 +262,11 @@ public class CachedTableRow {
     }
 
     public static @Nullable CachedTableRow fromResultSet(@NotNull CachedTable table, @NotNull String selectionColumn, @NotNull String value, @NotNull TaskResponseFuture<ResultSet> result, @NotNull ColumnDataResolver resolver) {
-        return fromResultSet(table, value, selectionColumn, result.sync(), resolver);
+        try(ResultSet set = result.sync()) {
+            return fromResultSet(table, value, selectionColumn, set, resolver);
+        }catch(SQLException e){
+            throw new RuntimeException(e);
+        }
     }
 
     public static @Nullable CachedTableRow fromResultSet(@NotNull CachedTable table, @NotNull String selectionColumn, @NotNull String value, @NotNull ResultSet result, @NotNull ColumnDataResolver resolver) {
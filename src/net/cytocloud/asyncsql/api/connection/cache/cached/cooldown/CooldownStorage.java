@@ -36,6 +36,11 @@ public class CooldownStorage extends KVStorage {
                 }
             }
 
+            @Override
+            public @NotNull Object toParameter(@NotNull String column, @NotNull Object object) {
+                return object;
+            }
+
         }, "Cooldown");
     }
 
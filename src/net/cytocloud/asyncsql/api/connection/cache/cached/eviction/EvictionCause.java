@@ -0,0 +1,8 @@
+package net.cytocloud.asyncsql.api.connection.cache.cached.eviction;
+
+public enum EvictionCause {
+
+    SIZE,       //The cache was above the maximum of its eviction policy
+    EXPIRED     //The row was expired with ExpirationAction.DELETE
+
+}
@@ -0,0 +1,16 @@
+package net.cytocloud.asyncsql.api.connection.cache.cached.eviction;
+
+import net.cytocloud.asyncsql.api.connection.cache.cached.CachedTableRow;
+import org.jetbrains.annotations.NotNull;
+
+@FunctionalInterface
+public interface EvictionListener {
+
+    /**
+     * Called after a row was evicted from the cache (on the thread which caused the eviction)
+     * @param row The evicted row (its unsaved changes are already being uploaded)
+     * @param cause Why the row was evicted
+     */
+    void onEviction(@NotNull CachedTableRow row, @NotNull EvictionCause cause);
+
+}
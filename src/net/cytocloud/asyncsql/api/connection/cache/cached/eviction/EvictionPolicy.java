@@ -0,0 +1,65 @@
+package net.cytocloud.asyncsql.api.connection.cache.cached.eviction;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Decides which rows of a size-bounded {@link net.cytocloud.asyncsql.api.connection.cache.cached.CachedTable} are evicted.
+ * A policy only tracks the keys and weights of the cached rows, the table removes the rows.
+ * @apiNote A policy doesn't have to be thread-safe, the table only calls it while it holds its eviction lock
+ */
+public interface EvictionPolicy {
+
+    /**
+     * A row was cached or its weight changed
+     * @param key The selection value of the row
+     * @param weight The weight of the row
+     */
+    void record(@NotNull String key, long weight);
+
+    /**
+     * A cached row was read
+     * @param key The selection value of the row
+     */
+    void access(@NotNull String key);
+
+    /**
+     * A row was removed from the cache (not by {@link #evict()})
+     * @param key The selection value of the row
+     */
+    void remove(@NotNull String key);
+
+    /**
+     * Select and forget the next row to evict
+     * @return The selection value of the row or null when the cache isn't above its maximum
+     */
+    @Nullable String evict();
+
+    /**
+     * @return The summed weight of the tracked rows
+     */
+    long getWeightedSize();
+
+    /**
+     * @return The maximum weight
+     */
+    long getMaximum();
+
+    /**
+     * @param maximum The maximum weight (the amount of rows with the default weigher)
+     * @return A policy which evicts the least recently used row
+     */
+    static @NotNull EvictionPolicy lru(long maximum) {
+        return new LruPolicy(maximum);
+    }
+
+    /**
+     * @param maximum The maximum weight (the amount of rows with the default weigher)
+     * @return A frequency-aware policy (W-TinyLFU): a new row replaces an old row only when it was requested more often,
+     * so a scan over many rarely used keys doesn't flush the frequently used rows
+     */
+    static @NotNull EvictionPolicy tinyLfu(long maximum) {
+        return new TinyLfuPolicy(maximum);
+    }
+
+}
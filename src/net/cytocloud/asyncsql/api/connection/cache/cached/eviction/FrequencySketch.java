@@ -0,0 +1,99 @@
+package net.cytocloud.asyncsql.api.connection.cache.cached.eviction;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A count-min sketch with 4-bit counters, which estimates how often a key was requested recently.
+ * All counters are halved after a sample period, so old popularity fades out.
+ */
+class FrequencySketch {
+
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+
+    /** 16 counters per long, every hash function uses its own 4 counters of a long */
+    private long[] table = new long[0];
+    private int sampleSize, additions;
+
+    FrequencySketch() {
+        ensureCapacity(16);
+    }
+
+    /**
+     * Grow the sketch so it can count about this many keys. The counts are kept: a key's counters of the grown table
+     * are at an index with the same low bits, so every copy of the old table starts with the old counts.
+     * @param entries The expected amount of keys
+     */
+    void ensureCapacity(long entries) {
+        int length = Integer.highestOneBit((int) Math.min(Math.max(entries, 16), 1 << 24) - 1) << 1;
+        if(table.length >= length) return;
+
+        final long[] old = this.table;
+
+        this.table = new long[length];
+        this.sampleSize = 10 * length;
+
+        for(int i = 0; old.length > 0 && i < length; i += old.length)
+            System.arraycopy(old, 0, table, i, old.length);
+    }
+
+    /**
+     * @param key The key
+     * @return The estimated amount of requests (0 - 15)
+     */
+    int frequency(@NotNull String key) {
+        int hash = spread(key.hashCode());
+        int frequency = Integer.MAX_VALUE;
+
+        for(int i = 0; i < 4; i++) {
+            long word = table[index(hash, i)];
+            frequency = Math.min(frequency, (int) ((word >>> offset(hash, i)) & 0xF));
+        }
+
+        return frequency;
+    }
+
+    /**
+     * Count a request of a key
+     * @param key The key
+     */
+    void increment(@NotNull String key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+
+        for(int i = 0; i < 4; i++) {
+            int index = index(hash, i);
+            int offset = offset(hash, i);
+
+            if(((table[index] >>> offset) & 0xF) != 0xF) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+
+        if(added && ++additions >= sampleSize) reset();
+    }
+
+    private void reset() {
+        for(int i = 0; i < table.length; i++)
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+
+        additions /= 2;
+    }
+
+    private int index(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        return (int) ((h + (h >>> 32)) & (table.length - 1));
+    }
+
+    private static int offset(int hash, int i) {
+        return ((i << 2) + ((hash >>> (i << 3)) & 3)) << 2;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+
+}
@@ -0,0 +1,62 @@
+package net.cytocloud.asyncsql.api.connection.cache.cached.eviction;
+
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Evicts the least recently used row
+ */
+public class LruPolicy implements EvictionPolicy {
+
+    /** The weights in access order (eldest first) */
+    private final LinkedHashMap<String, Long> weights = new LinkedHashMap<>(16, 0.75f, true);
+    @Getter
+    private final long maximum;
+    @Getter
+    private long weightedSize = 0;
+
+    public LruPolicy(long maximum) {
+        if(maximum < 0) throw new IllegalArgumentException("The maximum can't be negative");
+
+        this.maximum=maximum;
+    }
+
+    @Override
+    public void record(@NotNull String key, long weight) {
+        Long previous = weights.put(key, weight);
+
+        weightedSize += weight - (previous == null ? 0 : previous);
+    }
+
+    @Override
+    public void access(@NotNull String key) {
+        weights.get(key);
+    }
+
+    @Override
+    public void remove(@NotNull String key) {
+        Long previous = weights.remove(key);
+
+        if(previous != null) weightedSize -= previous;
+    }
+
+    @Override
+    public @Nullable String evict() {
+        if(weightedSize <= maximum) return null;
+
+        Iterator<Map.Entry<String, Long>> iterator = weights.entrySet().iterator();
+        if(!iterator.hasNext()) return null;
+
+        Map.Entry<String, Long> eldest = iterator.next();
+        iterator.remove();
+
+        weightedSize -= eldest.getValue();
+        return eldest.getKey();
+    }
+
+}
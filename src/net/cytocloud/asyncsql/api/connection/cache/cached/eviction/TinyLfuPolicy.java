@@ -0,0 +1,133 @@
+package net.cytocloud.asyncsql.api.connection.cache.cached.eviction;
+
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+
+/**
+ * W-TinyLFU: New rows enter a small LRU window (1% of the maximum). A row which leaves the window only replaces the
+ * eldest row of the main area when its estimated frequency is higher. The main area is a segmented LRU,
+ * rows which were read again are protected (80% of the main area) from rows which were only read once.
+ */
+public class TinyLfuPolicy implements EvictionPolicy {
+
+    private final FrequencySketch sketch = new FrequencySketch();
+    /** The weights in access order (eldest first) */
+    private final LinkedHashMap<String, Long> window = new LinkedHashMap<>(16, 0.75f, true),
+                                              probation = new LinkedHashMap<>(16, 0.75f, true),
+                                              protect = new LinkedHashMap<>(16, 0.75f, true);
+    @Getter
+    private final long maximum;
+    private final long windowMaximum, mainMaximum, protectedMaximum;
+    private long windowWeight = 0, probationWeight = 0, protectedWeight = 0;
+
+    public TinyLfuPolicy(long maximum) {
+        if(maximum < 0) throw new IllegalArgumentException("The maximum can't be negative");
+
+        this.maximum=maximum;
+        this.windowMaximum=Math.max(1, maximum / 100);
+        this.mainMaximum=Math.max(0, maximum - windowMaximum);
+        this.protectedMaximum=mainMaximum * 8 / 10;
+    }
+
+    @Override
+    public void record(@NotNull String key, long weight) {
+        sketch.increment(key);
+
+        Long previous;
+        if((previous = window.replace(key, weight)) != null) {
+            windowWeight += weight - previous;
+        }else if((previous = probation.replace(key, weight)) != null) {
+            probationWeight += weight - previous;
+        }else if((previous = protect.replace(key, weight)) != null) {
+            protectedWeight += weight - previous;
+        }else {
+            window.put(key, weight);
+            windowWeight += weight;
+            sketch.ensureCapacity(window.size() + probation.size() + protect.size());
+        }
+
+        // While the main area has space, rows leaving the window are admitted without a duel
+        while(windowWeight > windowMaximum && !window.isEmpty()) {
+            String eldest = window.keySet().iterator().next();
+            if(probationWeight + protectedWeight + window.get(eldest) > mainMaximum) break;
+
+            moveToProbation(eldest);
+        }
+    }
+
+    @Override
+    public void access(@NotNull String key) {
+        sketch.increment(key);
+
+        if(window.get(key) != null || protect.get(key) != null) return;
+
+        Long weight = probation.remove(key);
+        if(weight == null) return;
+
+        probationWeight -= weight;
+        protect.put(key, weight);
+        protectedWeight += weight;
+
+        while(protectedWeight > protectedMaximum && protect.size() > 1) {
+            String eldest = protect.keySet().iterator().next();
+            Long demoted = protect.remove(eldest);
+
+            protectedWeight -= demoted;
+            probation.put(eldest, demoted);
+            probationWeight += demoted;
+        }
+    }
+
+    @Override
+    public void remove(@NotNull String key) {
+        Long weight;
+
+        if((weight = window.remove(key)) != null) windowWeight -= weight;
+        else if((weight = probation.remove(key)) != null) probationWeight -= weight;
+        else if((weight = protect.remove(key)) != null) protectedWeight -= weight;
+    }
+
+    @Override
+    public @Nullable String evict() {
+        if(getWeightedSize() <= maximum) return null;
+
+        String candidate = windowWeight > windowMaximum && !window.isEmpty() ? window.keySet().iterator().next() : null;
+        String victim = !probation.isEmpty() ? probation.keySet().iterator().next() : !protect.isEmpty() ? protect.keySet().iterator().next() : null;
+
+        if(victim == null) {
+            // Only the window is left
+            String eldest = window.keySet().iterator().next();
+            remove(eldest);
+            return eldest;
+        }
+
+        if(candidate == null || sketch.frequency(candidate) <= sketch.frequency(victim)) {
+            String evicted = candidate == null ? victim : candidate;
+            remove(evicted);
+            return evicted;
+        }
+
+        // The candidate was requested more often, it replaces the victim
+        remove(victim);
+        moveToProbation(candidate);
+        return victim;
+    }
+
+    @Override
+    public long getWeightedSize() {
+        return windowWeight + probationWeight + protectedWeight;
+    }
+
+    private void moveToProbation(@NotNull String key) {
+        Long weight = window.remove(key);
+        if(weight == null) return;
+
+        windowWeight -= weight;
+        probation.put(key, weight);
+        probationWeight += weight;
+    }
+
+}
@@ -0,0 +1,21 @@
+package net.cytocloud.asyncsql.api.connection.cache.cached.eviction;
+
+import net.cytocloud.asyncsql.api.connection.cache.cached.CachedTableRow;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Calculates the weight of a cached row, which counts against the maximum of the {@link EvictionPolicy}
+ */
+@FunctionalInterface
+public interface Weigher {
+
+    /** Every row weighs 1, so the maximum is the amount of rows */
+    @NotNull Weigher SINGLETON = row -> 1;
+
+    /**
+     * @param row The row
+     * @return The weight of the row (not negative)
+     */
+    long weigh(@NotNull CachedTableRow row);
+
+}
@@ -1,6 +1,7 @@
 package net.cytocloud.asyncsql.api.connection.cache.cached.resolver;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -10,4 +11,14 @@ public interface ColumnDataResolver {
     @NotNull Object resolve(@NotNull String column, @NotNull ResultSet set) throws SQLException;
     @NotNull String export(@NotNull String column, @NotNull Object object);
 
+    /**
+     * Convert a value to a parameter of a prepared statement (e.g. a String or a Long), so it doesn't need the sql format
+     * @param column The column
+     * @param object The value
+     * @return The parameter or null to use the sql format of {@link #export(String, Object)}
+     */
+    default @Nullable Object toParameter(@NotNull String column, @NotNull Object object) {
+        return null;
+    }
+
 }
@@ -0,0 +1,237 @@
+package net.cytocloud.asyncsql.api.connection.pool;
+
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A pool of physical connections to the same database
+ */
+public class ConnectionPool {
+
+    /** Connections which were used within this time are not validated again on borrow */
+    private static final long VALIDATION_BYPASS_MS = 500;
+
+    private final @NotNull String url;
+    @Getter
+    private final int minSize, maxSize;
+    @Getter
+    private final long idleTimeout;
+    private final int validationTimeout;
+    private final int statementCacheSize;
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private int size = 0;
+    private boolean closed = false;
+
+    /**
+     * @param url The jdbc url of the database
+     * @param minSize The amount of connections which are always kept open
+     * @param maxSize The maximum amount of open connections
+     * @param idleTimeout Idle connections above the minimum size are closed after this time (milliseconds)
+     * @param validationTimeout The time in seconds to validate a connection on borrow
+     * @param statementCacheSize The maximum amount of cached prepared statements per connection
+     */
+    public ConnectionPool(@NotNull String url, int minSize, int maxSize, long idleTimeout, int validationTimeout, int statementCacheSize) {
+        if(minSize < 0 || maxSize < 1 || minSize > maxSize) throw new IllegalArgumentException("Invalid pool size (min: " + minSize + ", max: " + maxSize + ")");
+
+        this.url=url;
+        this.minSize=minSize;
+        this.maxSize=maxSize;
+        this.idleTimeout=idleTimeout;
+        this.validationTimeout=validationTimeout;
+        this.statementCacheSize=statementCacheSize;
+    }
+
+    /**
+     * Close every idle connection and open the minimum amount of connections again
+     * @throws SQLException When a connection couldn't be opened
+     */
+    public void reset() throws SQLException {
+        List<PooledConnection> toClose;
+
+        lock.lock();
+        try {
+            closed = false;
+            toClose = new ArrayList<>(idle);
+            size -= idle.size();
+            idle.clear();
+        } finally {
+            lock.unlock();
+        }
+
+        toClose.forEach(PooledConnection::close);
+
+        for(int i = 0; i < minSize; i++) {
+            lock.lock();
+            try {
+                if(size >= minSize) return;
+                size++;
+            } finally {
+                lock.unlock();
+            }
+
+            release(open());
+        }
+    }
+
+    /**
+     * Borrow a connection (Blocking the current thread until a connection is available)
+     * @return A valid connection, it has to be given back with {@link #release(PooledConnection)}
+     * @throws SQLException When a new connection couldn't be opened or the pool is closed
+     */
+    public @NotNull PooledConnection borrow() throws SQLException {
+        while(true) {
+            PooledConnection connection = null;
+
+            lock.lock();
+            try {
+                while(connection == null) {
+                    if(closed) throw new SQLException("The connection pool is closed");
+
+                    connection = idle.pollFirst();
+                    if(connection != null) break;
+
+                    if(size < maxSize) {
+                        size++;
+                        break;
+                    }
+
+                    released.awaitUninterruptibly();
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if(connection == null) return open();
+            if(isValid(connection)) return connection;
+
+            discard(connection);
+        }
+    }
+
+    /**
+     * Give back a borrowed connection
+     * @param connection The connection
+     */
+    public void release(@NotNull PooledConnection connection) {
+        connection.setLastUsed(System.currentTimeMillis());
+
+        lock.lock();
+        try {
+            if(!closed) {
+                idle.addFirst(connection);
+                released.signal();
+                return;
+            }
+
+            size--;
+        } finally {
+            lock.unlock();
+        }
+
+        connection.close();
+    }
+
+    /**
+     * Close every idle connection which wasn't used within the idle timeout (The minimum size is kept)
+     */
+    public void evictIdle() {
+        List<PooledConnection> toClose = new ArrayList<>();
+        long now = System.currentTimeMillis();
+
+        lock.lock();
+        try {
+            // The least recently used connections are at the end of the deque
+            while(size > minSize && !idle.isEmpty() && now - idle.peekLast().getLastUsed() >= idleTimeout) {
+                toClose.add(idle.pollLast());
+                size--;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        toClose.forEach(PooledConnection::close);
+    }
+
+    /**
+     * Close the pool. Idle connections are closed now, borrowed connections when they are released.
+     */
+    public void close() {
+        List<PooledConnection> toClose;
+
+        lock.lock();
+        try {
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            size -= idle.size();
+            idle.clear();
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        toClose.forEach(PooledConnection::close);
+    }
+
+    /**
+     * @return The amount of open connections (idle and borrowed)
+     */
+    public int getSize() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private @NotNull PooledConnection open() throws SQLException {
+        try {
+            return new PooledConnection(DriverManager.getConnection(url), statementCacheSize);
+        } catch (SQLException e) {
+            lock.lock();
+            try {
+                size--;
+                released.signal();
+            } finally {
+                lock.unlock();
+            }
+
+            throw e;
+        }
+    }
+
+    private boolean isValid(@NotNull PooledConnection connection) {
+        try {
+            if(connection.getConnection().isClosed()) return false;
+            if(System.currentTimeMillis() - connection.getLastUsed() < VALIDATION_BYPASS_MS) return true;
+
+            return connection.getConnection().isValid(validationTimeout);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void discard(@NotNull PooledConnection connection) {
+        lock.lock();
+        try {
+            size--;
+            released.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        connection.close();
+    }
+
+}
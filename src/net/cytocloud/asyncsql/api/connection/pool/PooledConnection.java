@@ -0,0 +1,38 @@
+package net.cytocloud.asyncsql.api.connection.pool;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+
+/**
+ * A physical connection which is owned by a {@link ConnectionPool}
+ */
+@Getter
+public class PooledConnection {
+
+    private final @NotNull Connection connection;
+    private final @NotNull StatementCache statements;
+    @Setter(AccessLevel.PACKAGE)
+    private long lastUsed;
+
+    protected PooledConnection(@NotNull Connection connection, int statementCacheSize) {
+        this.connection=connection;
+        this.statements = new StatementCache(connection, statementCacheSize);
+        this.lastUsed=System.currentTimeMillis();
+    }
+
+    /**
+     * Close the physical connection quietly
+     */
+    protected void close() {
+        statements.close();
+
+        try {
+            connection.close();
+        } catch (Exception ignored) {}
+    }
+
+}
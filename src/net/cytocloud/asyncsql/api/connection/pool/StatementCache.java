@@ -0,0 +1,217 @@
+package net.cytocloud.asyncsql.api.connection.pool;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded LRU cache of the prepared statements of one physical connection, keyed by the sql text
+ * @apiNote It is only used by the task which borrowed the connection. A statement whose last result set is still open
+ * isn't reused (re-executing it would close the result set), so close result sets to profit from the cache.
+ */
+public class StatementCache {
+
+    private final @NotNull Connection connection;
+    private final int capacity;
+    private final LinkedHashMap<String, CachedStatement> statements;
+
+    /**
+     * @param connection The physical connection
+     * @param capacity The maximum amount of cached statements (0: every statement is closed after its execution)
+     */
+    protected StatementCache(@NotNull Connection connection, int capacity) {
+        this.connection=connection;
+        this.capacity=capacity;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if(size() <= StatementCache.this.capacity) return false;
+
+                eldest.getValue().close();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Execute an update with the entered parameters
+     * @param sql The sql with ? placeholders
+     * @param params The parameters
+     * @return The amount of changed rows
+     * @throws SQLException When the statement fails
+     */
+    public int executeUpdate(@NotNull String sql, @Nullable Object... params) throws SQLException {
+        CachedStatement cached = acquire(sql);
+
+        if(cached == null) {
+            try(PreparedStatement statement = connection.prepareStatement(sql)) {
+                bind(statement, params);
+                return statement.executeUpdate();
+            }
+        }
+
+        try {
+            bind(cached.statement, params);
+            return cached.statement.executeUpdate();
+        } catch (SQLException e) {
+            discard(sql);
+            throw e;
+        }
+    }
+
+    /**
+     * Execute the statement once for every parameter set as one JDBC batch
+     * @param sql The sql with ? placeholders
+     * @param params The parameter sets
+     * @return The update counts
+     * @throws SQLException When the batch fails ({@link java.sql.BatchUpdateException} when single updates failed)
+     */
+    public int[] executeBatch(@NotNull String sql, @NotNull List<Object[]> params) throws SQLException {
+        CachedStatement cached = acquire(sql);
+
+        if(cached == null) {
+            try(PreparedStatement statement = connection.prepareStatement(sql)) {
+                return executeBatch(statement, params);
+            }
+        }
+
+        try {
+            return executeBatch(cached.statement, params);
+        } catch (BatchUpdateException e) {
+            cached.statement.clearBatch();
+            throw e;
+        } catch (SQLException e) {
+            discard(sql);
+            throw e;
+        }
+    }
+
+    /**
+     * Execute a query with the entered parameters
+     * @param sql The sql with ? placeholders
+     * @param params The parameters
+     * @return The result (Close it, so the statement can be reused)
+     * @throws SQLException When the statement fails
+     */
+    public @NotNull ResultSet executeQuery(@NotNull String sql, @Nullable Object... params) throws SQLException {
+        CachedStatement cached = acquire(sql);
+        if(cached == null) return executeUncachedQuery(sql, params);
+
+        try {
+            bind(cached.statement, params);
+            cached.result = cached.statement.executeQuery();
+            return cached.result;
+        } catch (SQLException e) {
+            discard(sql);
+            throw e;
+        }
+    }
+
+    /**
+     * Execute a query with a new statement, which is closed together with the result
+     * @param sql The sql with ? placeholders
+     * @param params The parameters
+     * @return The result (It can be read after the task ended, no cached statement depends on it)
+     * @throws SQLException When the statement fails
+     */
+    public @NotNull ResultSet executeUncachedQuery(@NotNull String sql, @Nullable Object... params) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+
+        try {
+            bind(statement, params);
+            statement.closeOnCompletion();
+            return statement.executeQuery();
+        } catch (SQLException e) {
+            statement.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The amount of cached statements
+     */
+    public int size() {
+        return statements.size();
+    }
+
+    /**
+     * Close every cached statement
+     */
+    protected void close() {
+        List<CachedStatement> toClose = new ArrayList<>(statements.values());
+
+        statements.clear();
+        toClose.forEach(CachedStatement::close);
+    }
+
+    /**
+     * @return The cached statement or null when the statement can't be cached or is still busy
+     */
+    private @Nullable CachedStatement acquire(@NotNull String sql) throws SQLException {
+        if(capacity <= 0) return null;
+
+        CachedStatement cached = statements.get(sql);
+        if(cached != null) return cached.isBusy() ? null : cached;
+
+        cached = new CachedStatement(connection.prepareStatement(sql));
+        statements.put(sql, cached);
+
+        return cached;
+    }
+
+    private void discard(@NotNull String sql) {
+        CachedStatement cached = statements.remove(sql);
+        if(cached != null) cached.close();
+    }
+
+    private static int[] executeBatch(@NotNull PreparedStatement statement, @NotNull List<Object[]> params) throws SQLException {
+        for(Object[] param : params) {
+            bind(statement, param);
+            statement.addBatch();
+        }
+
+        return statement.executeBatch();
+    }
+
+    private static void bind(@NotNull PreparedStatement statement, @Nullable Object[] params) throws SQLException {
+        if(params == null) return;
+
+        for(int i = 0; i < params.length; i++)
+            statement.setObject(i + 1, params[i]);
+    }
+
+    private static final class CachedStatement {
+
+        private final @NotNull PreparedStatement statement;
+        private @Nullable ResultSet result;
+
+        private CachedStatement(@NotNull PreparedStatement statement) {
+            this.statement=statement;
+        }
+
+        private boolean isBusy() throws SQLException {
+            return result != null && !result.isClosed();
+        }
+
+        /**
+         * Close the statement quietly (A statement with an open result set is closed when the result set is closed)
+         */
+        private void close() {
+            try {
+                if(isBusy()) statement.closeOnCompletion();
+                else statement.close();
+            } catch (SQLException ignored) {}
+        }
+
+    }
+
+}
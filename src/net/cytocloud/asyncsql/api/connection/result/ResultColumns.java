@@ -0,0 +1,90 @@
+package net.cytocloud.asyncsql.api.connection.result;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The column labels and sql types of a result, shared by all of its rows
+ */
+public class ResultColumns {
+
+    private final @NotNull List<String> labels;
+    private final @NotNull Map<String, Integer> indexes;
+    /** The indexes by lower case label, for lookups which don't match the case of the label */
+    private final @NotNull Map<String, Integer> lowerCaseIndexes;
+    private final int @NotNull [] types;
+
+    private ResultColumns(@NotNull List<String> labels, int @NotNull [] types) {
+        this.labels=List.copyOf(labels);
+        this.types=types;
+        this.indexes=new HashMap<>();
+        this.lowerCaseIndexes=new HashMap<>();
+
+        // With duplicate labels (e.g. joins) the first column wins, like ResultSet#findColumn
+        for(int i = 0; i < labels.size(); i++) {
+            indexes.putIfAbsent(labels.get(i), i);
+            lowerCaseIndexes.putIfAbsent(labels.get(i).toLowerCase(Locale.ROOT), i);
+        }
+    }
+
+    /**
+     * @param column The column label (case insensitive, like ResultSet#findColumn)
+     * @return The index of the column (starting at 0)
+     * @throws IllegalArgumentException When there is no such column
+     * @apiNote A label with the exact case is preferred over another label which only differs in case
+     */
+    public int indexOf(@NotNull String column) {
+        Integer index = indexes.get(column);
+        if(index == null) index = lowerCaseIndexes.get(column.toLowerCase(Locale.ROOT));
+        if(index == null) throw new IllegalArgumentException("Unknown column \"" + column + "\" (columns: " + labels + ")");
+
+        return index;
+    }
+
+    /**
+     * @param index The index of the column (starting at 0)
+     * @return The sql type of the column (see {@link java.sql.Types})
+     */
+    public int getType(int index) {
+        return types[index];
+    }
+
+    /**
+     * @return The column labels in the order of the result
+     */
+    public @NotNull List<String> getLabels() {
+        return labels;
+    }
+
+    /**
+     * @return The amount of columns
+     */
+    public int size() {
+        return types.length;
+    }
+
+    /**
+     * @param meta The meta data of a result set
+     * @return The columns of the result set
+     */
+    public static @NotNull ResultColumns of(@NotNull ResultSetMetaData meta) throws SQLException {
+        final int count = meta.getColumnCount();
+        final List<String> labels = new ArrayList<>(count);
+        final int[] types = new int[count];
+
+        for(int i = 0; i < count; i++) {
+            labels.add(meta.getColumnLabel(i + 1));
+            types[i] = meta.getColumnType(i + 1);
+        }
+
+        return new ResultColumns(labels, types);
+    }
+
+}
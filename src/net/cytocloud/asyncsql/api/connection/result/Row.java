@@ -0,0 +1,64 @@
+package net.cytocloud.asyncsql.api.connection.result;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * A row which was read from a result set. The column names are shared by every row of the same result.
+ */
+public class Row {
+
+    private final @NotNull ResultColumns columns;
+    private final @Nullable Object @NotNull [] values;
+
+    /**
+     * @param columns The columns of the result
+     * @param values The values in the order of the columns
+     */
+    Row(@NotNull ResultColumns columns, @Nullable Object @NotNull [] values) {
+        this.columns=columns;
+        this.values=values;
+    }
+
+    /**
+     * @param column The column label
+     * @return The value of the column (null when the value is NULL)
+     * @throws IllegalArgumentException When the result has no such column
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(@NotNull String column) {
+        return (T) getObject(column);
+    }
+
+    /**
+     * @param column The column label
+     * @return The value of the column (null when the value is NULL)
+     * @throws IllegalArgumentException When the result has no such column
+     */
+    public @Nullable Object getObject(@NotNull String column) {
+        return values[columns.indexOf(column)];
+    }
+
+    /**
+     * @param index The index of the column (starting at 0)
+     * @return The value of the column (null when the value is NULL)
+     */
+    public @Nullable Object getObject(int index) {
+        return values[index];
+    }
+
+    /**
+     * @return The columns of the row (shared by every row of the result)
+     */
+    public @NotNull ResultColumns getColumns() {
+        return columns;
+    }
+
+    @Override
+    public String toString() {
+        return "Row" + Arrays.toString(values);
+    }
+
+}
@@ -0,0 +1,371 @@
+package net.cytocloud.asyncsql.api.connection.result;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * An immutable copy of a result, which doesn't need the connection anymore and can be read by any thread.
+ * The values are stored per column, integer, long, double and boolean columns in primitive arrays.
+ * Like a {@link ResultSet}, the primitive getters return 0 (or false) for NULL values, use {@link #isNull(int, int)} to tell them apart.
+ */
+public class RowBuffer {
+
+    private final @NotNull ResultColumns columns;
+    private final @NotNull Column @NotNull [] data;
+    private final int size;
+
+    private RowBuffer(@NotNull ResultColumns columns, @NotNull Column @NotNull [] data, int size) {
+        this.columns=columns;
+        this.data=data;
+        this.size=size;
+    }
+
+    /**
+     * @return The amount of rows
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return The columns of the result
+     */
+    public @NotNull ResultColumns getColumns() {
+        return columns;
+    }
+
+    /**
+     * @param row The index of the row (starting at 0)
+     * @param column The index of the column (starting at 0)
+     * @return true when the value is NULL
+     */
+    public boolean isNull(int row, int column) {
+        return column(row, column).isNull(row);
+    }
+
+    public boolean isNull(int row, @NotNull String column) {
+        return isNull(row, columns.indexOf(column));
+    }
+
+    /**
+     * @param row The index of the row (starting at 0)
+     * @param column The index of the column (starting at 0)
+     * @return The value (0 when it is NULL)
+     * @throws ClassCastException When the column isn't numeric
+     */
+    public int getInt(int row, int column) {
+        Column c = column(row, column);
+        if(c instanceof IntColumn) return ((IntColumn) c).values[row];
+
+        return (int) getLong(row, column);
+    }
+
+    public int getInt(int row, @NotNull String column) {
+        return getInt(row, columns.indexOf(column));
+    }
+
+    /**
+     * @param row The index of the row (starting at 0)
+     * @param column The index of the column (starting at 0)
+     * @return The value (0 when it is NULL)
+     * @throws ClassCastException When the column isn't numeric
+     */
+    public long getLong(int row, int column) {
+        Column c = column(row, column);
+
+        if(c instanceof LongColumn) return ((LongColumn) c).values[row];
+        if(c instanceof IntColumn) return ((IntColumn) c).values[row];
+        if(c instanceof DoubleColumn) return (long) ((DoubleColumn) c).values[row];
+
+        Number n = (Number) c.get(row);
+        return n == null ? 0 : n.longValue();
+    }
+
+    public long getLong(int row, @NotNull String column) {
+        return getLong(row, columns.indexOf(column));
+    }
+
+    /**
+     * @param row The index of the row (starting at 0)
+     * @param column The index of the column (starting at 0)
+     * @return The value (0 when it is NULL)
+     * @throws ClassCastException When the column isn't numeric
+     */
+    public double getDouble(int row, int column) {
+        Column c = column(row, column);
+
+        if(c instanceof DoubleColumn) return ((DoubleColumn) c).values[row];
+        if(c instanceof LongColumn) return ((LongColumn) c).values[row];
+        if(c instanceof IntColumn) return ((IntColumn) c).values[row];
+
+        Number n = (Number) c.get(row);
+        return n == null ? 0 : n.doubleValue();
+    }
+
+    public double getDouble(int row, @NotNull String column) {
+        return getDouble(row, columns.indexOf(column));
+    }
+
+    /**
+     * @param row The index of the row (starting at 0)
+     * @param column The index of the column (starting at 0)
+     * @return The value (false when it is NULL, numbers are true when they aren't 0)
+     */
+    public boolean getBoolean(int row, int column) {
+        Column c = column(row, column);
+        if(c instanceof BooleanColumn) return ((BooleanColumn) c).values.get(row);
+
+        Object value = c.get(row);
+        if(value instanceof Boolean) return (Boolean) value;
+
+        return value != null && getDouble(row, column) != 0;
+    }
+
+    public boolean getBoolean(int row, @NotNull String column) {
+        return getBoolean(row, columns.indexOf(column));
+    }
+
+    /**
+     * @param row The index of the row (starting at 0)
+     * @param column The index of the column (starting at 0)
+     * @return The value as string (null when it is NULL)
+     */
+    public @Nullable String getString(int row, int column) {
+        Object value = getObject(row, column);
+        return value == null ? null : value.toString();
+    }
+
+    public @Nullable String getString(int row, @NotNull String column) {
+        return getString(row, columns.indexOf(column));
+    }
+
+    /**
+     * @param row The index of the row (starting at 0)
+     * @param column The index of the column (starting at 0)
+     * @return The value like {@link ResultSet#getObject(int)} returned it (primitive values are boxed)
+     */
+    public @Nullable Object getObject(int row, int column) {
+        return column(row, column).get(row);
+    }
+
+    public @Nullable Object getObject(int row, @NotNull String column) {
+        return getObject(row, columns.indexOf(column));
+    }
+
+    /**
+     * @param row The index of the row (starting at 0)
+     * @return A copy of the row
+     */
+    public @NotNull Row getRow(int row) {
+        Object[] values = new Object[data.length];
+
+        for(int i = 0; i < data.length; i++)
+            values[i] = getObject(row, i);
+
+        return new Row(columns, values);
+    }
+
+    private @NotNull Column column(int row, int column) {
+        if(row < 0 || row >= size) throw new IndexOutOfBoundsException("Row " + row + " (size: " + size + ")");
+        return data[column];
+    }
+
+    /**
+     * Read the remaining rows of a result set
+     * @param result The result set (It isn't closed)
+     * @return The rows
+     */
+    public static @NotNull RowBuffer read(@NotNull ResultSet result) throws SQLException {
+        final ResultSetMetaData meta = result.getMetaData();
+        final ResultColumns columns = ResultColumns.of(meta);
+        final Column[] data = new Column[columns.size()];
+
+        for(int i = 0; i < data.length; i++)
+            data[i] = createColumn(meta, i + 1);
+
+        int size = 0;
+        int capacity = 16;
+
+        while(result.next()) {
+            if(size == capacity) {
+                capacity *= 2;
+                for(Column c : data) c.grow(capacity);
+            }
+
+            for(int i = 0; i < data.length; i++)
+                data[i].read(result, i + 1, size);
+
+            size++;
+        }
+
+        for(Column c : data)
+            c.grow(size);
+
+        return new RowBuffer(columns, data, size);
+    }
+
+    private static @NotNull Column createColumn(@NotNull ResultSetMetaData meta, int index) throws SQLException {
+        switch(meta.getColumnType(index)) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+                return new IntColumn();
+            case Types.INTEGER:
+                // An unsigned int doesn't fit into an int
+                return meta.isSigned(index) ? new IntColumn() : new LongColumn();
+            case Types.BIGINT:
+                return meta.isSigned(index) ? new LongColumn() : new ObjectColumn();
+            case Types.DOUBLE:
+            case Types.FLOAT:
+                return new DoubleColumn();
+            case Types.BOOLEAN:
+                return new BooleanColumn();
+            default:
+                return new ObjectColumn();
+        }
+    }
+
+    private static abstract class Column {
+
+        /** The rows with NULL values (only used by primitive columns) */
+        final BitSet nulls = new BitSet();
+
+        abstract void read(@NotNull ResultSet result, int index, int row) throws SQLException;
+
+        abstract void grow(int capacity);
+
+        abstract @Nullable Object get(int row);
+
+        boolean isNull(int row) {
+            return nulls.get(row);
+        }
+
+        void readNull(@NotNull ResultSet result, int row) throws SQLException {
+            if(result.wasNull()) nulls.set(row);
+        }
+
+    }
+
+    private static final class IntColumn extends Column {
+
+        int[] values = new int[16];
+
+        @Override
+        void read(@NotNull ResultSet result, int index, int row) throws SQLException {
+            values[row] = result.getInt(index);
+            readNull(result, row);
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        @Nullable Object get(int row) {
+            return isNull(row) ? null : values[row];
+        }
+
+    }
+
+    private static final class LongColumn extends Column {
+
+        long[] values = new long[16];
+
+        @Override
+        void read(@NotNull ResultSet result, int index, int row) throws SQLException {
+            values[row] = result.getLong(index);
+            readNull(result, row);
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        @Nullable Object get(int row) {
+            return isNull(row) ? null : values[row];
+        }
+
+    }
+
+    private static final class DoubleColumn extends Column {
+
+        double[] values = new double[16];
+
+        @Override
+        void read(@NotNull ResultSet result, int index, int row) throws SQLException {
+            values[row] = result.getDouble(index);
+            readNull(result, row);
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        @Nullable Object get(int row) {
+            return isNull(row) ? null : values[row];
+        }
+
+    }
+
+    private static final class BooleanColumn extends Column {
+
+        final BitSet values = new BitSet();
+
+        @Override
+        void read(@NotNull ResultSet result, int index, int row) throws SQLException {
+            if(result.getBoolean(index)) values.set(row);
+            readNull(result, row);
+        }
+
+        @Override
+        void grow(int capacity) {}
+
+        @Override
+        @Nullable Object get(int row) {
+            return isNull(row) ? null : values.get(row);
+        }
+
+    }
+
+    private static final class ObjectColumn extends Column {
+
+        Object[] values = new Object[16];
+
+        @Override
+        void read(@NotNull ResultSet result, int index, int row) throws SQLException {
+            values[row] = result.getObject(index);
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        @Nullable Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        boolean isNull(int row) {
+            return values[row] == null;
+        }
+
+    }
+
+}
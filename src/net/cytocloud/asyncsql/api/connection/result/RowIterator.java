@@ -0,0 +1,104 @@
+package net.cytocloud.asyncsql.api.connection.result;
+
+import net.cytocloud.asyncsql.api.thread.task.future.exception.FutureException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * A blocking iterator over the rows of a {@link RowPublisher}. At most the prefetch amount of rows is fetched ahead,
+ * the next rows are requested when half of them were iterated.
+ */
+public class RowIterator implements Iterator<Row>, Flow.Subscriber<Row>, AutoCloseable {
+
+    private static final Object COMPLETE = new Object();
+
+    private final int prefetch;
+    private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private volatile @Nullable Flow.Subscription subscription;
+    private @Nullable Object next;
+    private int consumed = 0;
+
+    /**
+     * @param prefetch The maximum amount of rows which are fetched before they are iterated
+     */
+    RowIterator(int prefetch) {
+        if(prefetch < 1) throw new IllegalArgumentException("The prefetch must be positive");
+
+        this.prefetch=prefetch;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if(next == null) {
+            try {
+                next = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new FutureException(e);
+            }
+        }
+
+        if(next instanceof Throwable) throw new FutureException((Throwable) next);
+        return next != COMPLETE;
+    }
+
+    @Override
+    public @NotNull Row next() {
+        if(!hasNext()) throw new NoSuchElementException();
+
+        Row row = (Row) next;
+        next = null;
+
+        if(++consumed >= Math.max(1, prefetch / 2)) {
+            request(consumed);
+            consumed = 0;
+        }
+
+        return row;
+    }
+
+    /**
+     * Cancel the stream (The iterator ends after the rows which were already fetched)
+     */
+    @Override
+    public void close() {
+        Flow.Subscription s = subscription;
+        if(s != null) s.cancel();
+
+        queue.add(COMPLETE);
+    }
+
+    @Override
+    public void onSubscribe(@NotNull Flow.Subscription subscription) {
+        this.subscription=subscription;
+        subscription.request(prefetch);
+    }
+
+    @Override
+    public void onNext(@NotNull Row row) {
+        queue.add(row);
+    }
+
+    @Override
+    public void onError(@NotNull Throwable throwable) {
+        queue.add(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        queue.add(COMPLETE);
+    }
+
+    private void request(long n) {
+        Flow.Subscription s = subscription;
+        if(s != null) s.request(n);
+    }
+
+}
@@ -0,0 +1,307 @@
+package net.cytocloud.asyncsql.api.connection.result;
+
+import net.cytocloud.asyncsql.api.thread.future.DoneFuture;
+import net.cytocloud.asyncsql.api.thread.task.ThrowableConsumer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streams the rows of a query to its subscribers. Every subscription executes the query as one connection task,
+ * which reads the next rows from the cursor only when the subscriber requested them, so a slow subscriber never makes the rows pile up in memory.
+ * The rows are delivered on the thread which executes the task.
+ * @apiNote The stream holds its physical connection until it completes or is cancelled
+ * (With {@link net.cytocloud.asyncsql.api.connection.ExecutionMode#SERIAL} every other task of the connection waits meanwhile).
+ * A stream which ends before its last row (cancelled or timed out) cancels its statement, so the server stops sending the remaining rows.
+ */
+public class RowPublisher implements Flow.Publisher<Row> {
+
+    /** Fetch size which makes MySQL send the rows one by one instead of buffering the whole result in the driver */
+    public static final int STREAMING = Integer.MIN_VALUE;
+
+    private final @NotNull String query;
+    private final @Nullable Object @NotNull [] params;
+    private final int fetchSize;
+    private final long timeout;
+    private final @Nullable Executor callbackExecutor;
+    private final @NotNull BiConsumer<ThrowableConsumer<Connection, SQLException>, Consumer<SQLException>> submitter;
+
+    /**
+     * @param query The query with ? placeholders
+     * @param params The values of the placeholders
+     * @param fetchSize The amount of rows the driver fetches at once ({@link #STREAMING} for MySQL row by row streaming, 0 for the driver default)
+     * @param timeout The maximum time in milliseconds to wait for demand of a subscriber before the stream is cancelled
+     * @param callbackExecutor The executor of the callbacks of {@link #forEachBatch(int, Consumer)} (null to run them on the thread which completes the future)
+     * @param submitter Executes the work of a subscription as a connection task (and reports when the task fails before it was executed)
+     */
+    public RowPublisher(@NotNull String query, @Nullable Object @Nullable [] params, int fetchSize, long timeout, @Nullable Executor callbackExecutor, @NotNull BiConsumer<ThrowableConsumer<Connection, SQLException>, Consumer<SQLException>> submitter) {
+        this.query=query;
+        this.params=params == null ? new Object[0] : params;
+        this.fetchSize=fetchSize;
+        this.timeout=timeout;
+        this.callbackExecutor=callbackExecutor;
+        this.submitter=submitter;
+    }
+
+    @Override
+    public void subscribe(@NotNull Flow.Subscriber<? super Row> subscriber) {
+        Objects.requireNonNull(subscriber);
+
+        Subscription subscription = new Subscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        submitter.accept(subscription::stream, subscription::error);
+    }
+
+    /**
+     * Consume the rows in batches
+     * @param batchSize The maximum amount of rows in one batch (The next rows are fetched when the consumer returned)
+     * @param consumer The consumer of the batches (Called on the thread which executes the query)
+     * @return A future which is done when every row was consumed
+     */
+    public @NotNull DoneFuture forEachBatch(int batchSize, @NotNull Consumer<List<Row>> consumer) {
+        if(batchSize < 1) throw new IllegalArgumentException("The batch size must be positive");
+
+        DoneFuture future = new DoneFuture();
+        future.setCallbackExecutor(callbackExecutor);
+
+        subscribe(new Flow.Subscriber<>() {
+            private @Nullable Flow.Subscription subscription;
+            private @NotNull List<Row> batch = new ArrayList<>(batchSize);
+
+            @Override
+            public void onSubscribe(@NotNull Flow.Subscription subscription) {
+                this.subscription=subscription;
+                subscription.request(batchSize);
+            }
+
+            @Override
+            public void onNext(@NotNull Row row) {
+                batch.add(row);
+                if(batch.size() < batchSize) return;
+
+                consumer.accept(batch);
+                batch = new ArrayList<>(batchSize);
+
+                Objects.requireNonNull(subscription).request(batchSize);
+            }
+
+            @Override
+            public void onError(@NotNull Throwable throwable) {
+                future.notifyException(throwable instanceof SQLException ? (SQLException) throwable : new SQLException(throwable));
+            }
+
+            @Override
+            public void onComplete() {
+                if(!batch.isEmpty()) consumer.accept(batch);
+                future.done();
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Iterate the rows on the current thread
+     * @param prefetch The maximum amount of rows which are fetched before they are iterated
+     * @return A blocking iterator of the rows (Close it when it isn't iterated to the end, so the stream is cancelled)
+     * @apiNote Never iterate on the thread of the connection, it would wait for itself
+     */
+    public @NotNull RowIterator iterator(int prefetch) {
+        RowIterator iterator = new RowIterator(prefetch);
+        subscribe(iterator);
+
+        return iterator;
+    }
+
+    /**
+     * @param prefetch The maximum amount of rows which are fetched before they are processed
+     * @return A sequential stream of the rows (Closing it cancels the query)
+     * @see #iterator(int)
+     */
+    public @NotNull Stream<Row> toStream(int prefetch) {
+        RowIterator iterator = iterator(prefetch);
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(iterator::close);
+    }
+
+    private final class Subscription implements Flow.Subscription {
+
+        private final @NotNull Flow.Subscriber<? super Row> subscriber;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition demanded = lock.newCondition();
+        private long demand = 0;
+        private boolean cancelled = false;
+        private boolean terminated = false;
+        private @Nullable Throwable invalidRequest;
+
+        private Subscription(@NotNull Flow.Subscriber<? super Row> subscriber) {
+            this.subscriber=subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            lock.lock();
+            try {
+                if(n <= 0) {
+                    invalidRequest = new IllegalArgumentException("The requested amount must be positive (requested: " + n + ")");
+                    cancelled = true;
+                }else {
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                }
+
+                demanded.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            lock.lock();
+            try {
+                cancelled = true;
+                demanded.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * The work of the connection task
+         */
+        private void stream(@NotNull Connection connection) {
+            try {
+                if(!awaitDemand()) return;
+
+                try(PreparedStatement statement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    statement.setFetchSize(fetchSize);
+
+                    for(int i = 0; i < params.length; i++)
+                        statement.setObject(i + 1, params[i]);
+
+                    final ResultSet result = statement.executeQuery();
+
+                    try {
+                        final ResultColumns columns = ResultColumns.of(result.getMetaData());
+                        final int count = columns.size();
+
+                        // The first row was already requested before the query was executed
+                        do {
+                            if(!result.next()) {
+                                result.close();
+                                complete();
+                                return;
+                            }
+
+                            Object[] values = new Object[count];
+
+                            for(int i = 0; i < count; i++)
+                                values[i] = result.getObject(i + 1);
+
+                            subscriber.onNext(new Row(columns, values));
+                        } while(awaitDemand());
+                    } finally {
+                        // Cancelled, timed out or failed before the last row
+                        if(!result.isClosed()) abort(statement, result);
+                    }
+                }
+            } catch (SQLException e) {
+                error(e);
+            } catch (RuntimeException e) {
+                // The subscriber failed, it won't get any further rows
+                cancel();
+                error(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+                error(e);
+            }
+        }
+
+        /**
+         * End the query before every row was read. Without the cancel, closing the result set of a {@link #STREAMING} query
+         * would read every remaining row from the server.
+         * @param statement The running statement
+         * @param result Its result set
+         */
+        private void abort(@NotNull Statement statement, @NotNull ResultSet result) {
+            try {
+                statement.cancel();
+                result.close();
+            } catch (SQLException ignored) {
+                // The cancelled query may fail while its result set is closed, the subscriber already got its signal
+            }
+        }
+
+        /**
+         * Wait until the subscriber requested the next row and take it from the demand
+         * @return false when the stream was cancelled
+         */
+        private boolean awaitDemand() throws InterruptedException {
+            Throwable failure = null;
+
+            lock.lock();
+            try {
+                long nanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+
+                while(demand == 0 && !cancelled) {
+                    if(nanos <= 0) {
+                        cancelled = true;
+                        failure = new SQLTimeoutException("The subscriber didn't request rows for " + timeout + "ms");
+                        break;
+                    }
+
+                    nanos = demanded.awaitNanos(nanos);
+                }
+
+                if(cancelled) {
+                    if(failure == null) failure = invalidRequest;
+                }else {
+                    if(demand != Long.MAX_VALUE) demand--;
+                    return true;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if(failure != null) error(failure);
+            return false;
+        }
+
+        private void complete() {
+            if(terminated) return;
+
+            terminated = true;
+            subscriber.onComplete();
+        }
+
+        private void error(@NotNull Throwable throwable) {
+            if(terminated) return;
+
+            terminated = true;
+            subscriber.onError(throwable);
+        }
+
+    }
+
+}
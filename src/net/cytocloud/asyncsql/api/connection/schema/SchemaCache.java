@@ -0,0 +1,150 @@
+package net.cytocloud.asyncsql.api.connection.schema;
+
+import net.cytocloud.asyncsql.api.connection.AsyncConnection;
+import net.cytocloud.asyncsql.api.thread.task.TaskProperties;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Caches the columns and keys of the tables of a connection, so the information schema is only queried once per table.
+ * The schema of a table is invalidated by {@link AsyncConnection#createTable(String, String)},
+ * {@link net.cytocloud.asyncsql.api.connection.table.Table#addColumn(String)} and {@link net.cytocloud.asyncsql.api.connection.table.Table#delete()}.
+ * Call {@link #refresh()} after changing the schema with other statements.
+ */
+public class SchemaCache {
+
+    private final @NotNull AsyncConnection connection;
+    private final Map<String, CompletableFuture<@Nullable TableSchema>> tables = new ConcurrentHashMap<>();
+
+    public SchemaCache(@NotNull AsyncConnection connection) {
+        this.connection=connection;
+    }
+
+    /**
+     * @param table The name of the table
+     * @return A future of the schema (null when the table doesn't exist), loaded when it isn't cached
+     * @throws net.cytocloud.asyncsql.api.thread.task.TaskRejectedException When the load is rejected by the task queue
+     */
+    public @NotNull CompletableFuture<@Nullable TableSchema> get(@NotNull String table) {
+        CompletableFuture<TableSchema> schema = tables.get(table);
+        if(schema != null) return schema;
+
+        CompletableFuture<TableSchema> loading = new CompletableFuture<>();
+
+        schema = tables.putIfAbsent(table, loading);
+        if(schema != null) return schema;
+
+        try {
+            connection.executeConnectionTask(TaskProperties.none(), c -> loading.complete(read(c, table))).getFutureExceptionManager().async(e -> {
+                // A failed load isn't cached
+                tables.remove(table, loading);
+                loading.completeExceptionally(e);
+            });
+        } catch (RuntimeException e) {
+            // A rejected load isn't cached either, callers waiting on the same future see the rejection
+            tables.remove(table, loading);
+            loading.completeExceptionally(e);
+            throw e;
+        }
+
+        return loading;
+    }
+
+    /**
+     * @param table The name of the table
+     * @return The cached schema or null when it isn't loaded yet (or the table doesn't exist)
+     */
+    public @Nullable TableSchema getIfLoaded(@NotNull String table) {
+        CompletableFuture<TableSchema> schema = tables.get(table);
+        return schema == null || schema.isCompletedExceptionally() ? null : schema.getNow(null);
+    }
+
+    /**
+     * Read the schema of a table on a connection and cache it (For use inside of a connection task)
+     * @param connection The connection of the running task
+     * @param table The name of the table
+     * @return The schema or null when the table doesn't exist
+     */
+    public @Nullable TableSchema load(@NotNull Connection connection, @NotNull String table) throws SQLException {
+        TableSchema schema = read(connection, table);
+        tables.put(table, CompletableFuture.completedFuture(schema));
+
+        return schema;
+    }
+
+    /**
+     * Remove a table from the cache, it is loaded again on the next access
+     * @param table The name of the table
+     */
+    public void invalidate(@NotNull String table) {
+        tables.remove(table);
+    }
+
+    /**
+     * Remove every table from the cache
+     */
+    public void refresh() {
+        tables.clear();
+    }
+
+    /**
+     * Load the schema of a table again
+     * @param table The name of the table
+     * @return A future of the new schema
+     */
+    public @NotNull CompletableFuture<@Nullable TableSchema> refresh(@NotNull String table) {
+        invalidate(table);
+        return get(table);
+    }
+
+    private static @Nullable TableSchema read(@NotNull Connection connection, @NotNull String table) throws SQLException {
+        final Map<String, String> columns = new LinkedHashMap<>();
+
+        try(PreparedStatement statement = connection.prepareStatement("SELECT COLUMN_NAME, DATA_TYPE FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME = ? ORDER BY ORDINAL_POSITION")) {
+            statement.setString(1, table);
+
+            try(ResultSet result = statement.executeQuery()) {
+                while(result.next())
+                    columns.put(result.getString("COLUMN_NAME"), result.getString("DATA_TYPE"));
+            }
+        }
+
+        // Every table has at least one column
+        if(columns.isEmpty()) return null;
+
+        final Map<Short, String> primaryKey = new TreeMap<>();
+        final Map<String, Set<String>> uniqueKeys = new LinkedHashMap<>();
+
+        try(ResultSet result = connection.getMetaData().getPrimaryKeys(connection.getCatalog(), null, table)) {
+            while(result.next())
+                primaryKey.put(result.getShort("KEY_SEQ"), result.getString("COLUMN_NAME"));
+        }
+
+        try(ResultSet result = connection.getMetaData().getIndexInfo(connection.getCatalog(), null, table, true, false)) {
+            while(result.next()) {
+                String index = result.getString("INDEX_NAME");
+                String column = result.getString("COLUMN_NAME");
+
+                if(index != null && column != null) uniqueKeys.computeIfAbsent(index, i -> new HashSet<>()).add(column);
+            }
+        }
+
+        return new TableSchema(table, Collections.unmodifiableMap(columns), List.copyOf(primaryKey.values()), uniqueKeys.values().stream().map(Set::copyOf).collect(Collectors.toUnmodifiableList()));
+    }
+
+}
@@ -0,0 +1,27 @@
+package net.cytocloud.asyncsql.api.connection.schema;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The cached schema of a table
+ * @param name The name of the table
+ * @param columns The column names associated with their data types (in the order of the table)
+ * @param primaryKey The columns of the primary key (empty when the table has none)
+ * @param uniqueKeys The columns of every unique index (including the primary key)
+ */
+public record TableSchema(@NotNull String name, @NotNull Map<String, String> columns, @NotNull List<String> primaryKey, @NotNull List<Set<String>> uniqueKeys) {
+
+    /**
+     * @param keyColumns Some columns
+     * @return true when a unique index only consists of these columns, so they identify at most one row
+     */
+    public boolean isUnique(@NotNull Collection<String> keyColumns) {
+        return uniqueKeys.stream().anyMatch(keyColumns::containsAll);
+    }
+
+}
@@ -0,0 +1,136 @@
+package net.cytocloud.asyncsql.api.connection.table;
+
+import net.cytocloud.asyncsql.api.thread.AsyncSQLThreadWorker;
+import net.cytocloud.asyncsql.api.thread.future.DoneFuture;
+import net.cytocloud.asyncsql.api.thread.task.TaskProperties;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletionException;
+import java.util.function.LongConsumer;
+
+/**
+ * Inserts rows in chunks of multi-row INSERT statements. The next chunk is read from the iterator when the previous chunk
+ * was inserted, so only one chunk is held in memory.
+ */
+class BulkInsert {
+
+    /** The maximum amount of placeholders in one statement (MySQL) */
+    private static final int MAX_PARAMETERS = 65535;
+
+    private final @NotNull Table table;
+    private final @NotNull Iterator<? extends Map<String, ?>> rows;
+    private final @NotNull TaskProperties properties;
+    private final @Nullable LongConsumer progress;
+    private final @Nullable Runnable onClose;
+    private final @NotNull DoneFuture future;
+    private int chunkSize;
+    private @Nullable List<String> columns;
+    private long inserted = 0;
+
+    BulkInsert(@NotNull Table table, @NotNull Iterator<? extends Map<String, ?>> rows, int chunkSize, @NotNull TaskProperties properties, @Nullable LongConsumer progress, @Nullable Runnable onClose, @NotNull DoneFuture future) {
+        this.table=table;
+        this.rows=rows;
+        this.chunkSize=chunkSize;
+        this.properties=properties;
+        this.progress=progress;
+        this.onClose=onClose;
+        this.future=future;
+    }
+
+    /**
+     * Read and insert the next chunk (the future is done when there are no rows left)
+     */
+    void next() {
+        final List<Object> params = new ArrayList<>();
+        int count = 0;
+
+        try {
+            while(count < chunkSize && rows.hasNext()) {
+                addRow(rows.next(), params);
+                count++;
+            }
+        } catch (RuntimeException e) {
+            finish(new SQLException("Unable to read the next row", e));
+            return;
+        }
+
+        if(count == 0) {
+            finish(null);
+            return;
+        }
+
+        final int chunk = count;
+
+        table.getConnection().update(properties, buildStatement(chunk), params.toArray()).toCompletableFuture().whenCompleteAsync((v, e) -> {
+            if(e != null) {
+                finish(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                return;
+            }
+
+            inserted += chunk;
+            if(progress != null) progress.accept(inserted);
+
+            next();
+        }, AsyncSQLThreadWorker::runAsync);
+    }
+
+    private void addRow(@NotNull Map<String, ?> row, @NotNull List<Object> params) {
+        if(columns == null) {
+            if(row.isEmpty()) throw new IllegalArgumentException("A row needs at least one column");
+
+            // Sorted, so every chunk of the same size results in the same (cached) statement
+            columns = new ArrayList<>(new TreeSet<>(row.keySet()));
+            chunkSize = Math.max(1, Math.min(chunkSize, MAX_PARAMETERS / columns.size()));
+        }
+
+        if(row.size() != columns.size() || !row.keySet().containsAll(columns))
+            throw new IllegalArgumentException("Every row needs the columns " + columns + " (found: " + row.keySet() + ")");
+
+        for(String column : columns)
+            params.add(row.get(column));
+    }
+
+    private @NotNull String buildStatement(int count) {
+        final StringBuilder sql = new StringBuilder("INSERT INTO `").append(table.getName()).append("` (");
+        final StringBuilder row = new StringBuilder("(");
+
+        for(int i = 0; i < columns.size(); i++) {
+            if(i > 0) {
+                sql.append(", ");
+                row.append(", ");
+            }
+
+            sql.append("`").append(columns.get(i)).append("`");
+            row.append("?");
+        }
+
+        sql.append(") VALUES ");
+        row.append(")");
+
+        for(int i = 0; i < count; i++) {
+            if(i > 0) sql.append(", ");
+            sql.append(row);
+        }
+
+        return sql.toString();
+    }
+
+    private void finish(@Nullable Throwable throwable) {
+        if(onClose != null) {
+            try {
+                onClose.run();
+            } catch (RuntimeException ignored) {}
+        }
+
+        if(throwable == null) future.done();
+        else future.notifyException(throwable instanceof SQLException ? (SQLException) throwable : new SQLException(throwable));
+    }
+
+}
@@ -0,0 +1,165 @@
+package net.cytocloud.asyncsql.api.connection.table;
+
+import net.cytocloud.asyncsql.api.connection.result.RowBuffer;
+import net.cytocloud.asyncsql.api.thread.AsyncSQLThreadWorker;
+import net.cytocloud.asyncsql.api.thread.future.DoneFuture;
+import net.cytocloud.asyncsql.api.thread.task.TaskProperties;
+import net.cytocloud.asyncsql.api.thread.task.future.exception.FutureException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Walks a table page by page with keyset queries (WHERE key > last key ORDER BY key LIMIT page size),
+ * so every page costs the same no matter how deep it is. The key column has to be unique, rows with the same key
+ * could be skipped at the border of two pages otherwise.
+ * With prefetching, the query of the next page is executed as soon as the previous page arrived.
+ */
+public class KeysetPager implements Iterator<RowBuffer> {
+
+    private final @NotNull Table table;
+    private final @NotNull String keyColumn;
+    private final int pageSize;
+    private final @Nullable String condition;
+    private final @Nullable Object @NotNull [] params;
+    private final boolean prefetch;
+    private final @NotNull TaskProperties properties;
+    /** The page which is returned next (already requested when prefetching) */
+    private @Nullable CompletableFuture<@Nullable RowBuffer> next;
+    /** The last requested page, the following page starts behind its last key */
+    private @NotNull CompletableFuture<@Nullable RowBuffer> last = CompletableFuture.completedFuture(null);
+    private boolean requested = false;
+    private @Nullable RowBuffer iterated;
+
+    KeysetPager(@NotNull Table table, @NotNull String keyColumn, int pageSize, @Nullable String condition, boolean prefetch, @NotNull TaskProperties properties, @Nullable Object @Nullable [] params) {
+        if(pageSize < 1) throw new IllegalArgumentException("The page size must be positive");
+
+        this.table=table;
+        this.keyColumn=keyColumn;
+        this.pageSize=pageSize;
+        this.condition=condition;
+        this.prefetch=prefetch;
+        this.properties=properties;
+        this.params=params == null ? new Object[0] : params;
+    }
+
+    /**
+     * @return A future of the next page (null when there are no rows left)
+     */
+    public synchronized @NotNull CompletableFuture<@Nullable RowBuffer> nextPage() {
+        CompletableFuture<RowBuffer> page = next != null ? next : request();
+        next = prefetch ? request() : null;
+
+        return page;
+    }
+
+    /**
+     * Process every remaining page. The next page is requested after the consumer returned (or before, with prefetching).
+     * @param consumer The consumer of the pages (Called on the {@link AsyncSQLThreadWorker})
+     * @return A future which is done when every page was processed
+     */
+    public @NotNull DoneFuture forEachPage(@NotNull Consumer<RowBuffer> consumer) {
+        DoneFuture future = new DoneFuture();
+        future.setCallbackExecutor(table.getConnection().getOptions().getCallbackExecutor());
+
+        forEachPage(consumer, future);
+        return future;
+    }
+
+    /**
+     * Blocks until the next page arrived
+     * @return true when there is another page
+     */
+    @Override
+    public boolean hasNext() {
+        if(iterated == null) {
+            try {
+                iterated = nextPage().join();
+            } catch (CompletionException e) {
+                throw new FutureException(e.getCause() != null ? e.getCause() : e);
+            }
+        }
+
+        return iterated != null;
+    }
+
+    @Override
+    public @NotNull RowBuffer next() {
+        if(!hasNext()) throw new NoSuchElementException();
+
+        RowBuffer page = iterated;
+        iterated = null;
+
+        return page;
+    }
+
+    private void forEachPage(@NotNull Consumer<RowBuffer> consumer, @NotNull DoneFuture future) {
+        nextPage().whenCompleteAsync((page, e) -> {
+            if(e != null) {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                future.notifyException(cause instanceof SQLException ? (SQLException) cause : new SQLException(cause));
+                return;
+            }
+
+            if(page == null) {
+                future.done();
+                return;
+            }
+
+            try {
+                consumer.accept(page);
+            } catch (RuntimeException ex) {
+                future.notifyException(new SQLException("The page consumer failed", ex));
+                return;
+            }
+
+            forEachPage(consumer, future);
+        }, AsyncSQLThreadWorker::runAsync);
+    }
+
+    /**
+     * Request the page behind the last requested page
+     */
+    private @NotNull CompletableFuture<@Nullable RowBuffer> request() {
+        final boolean first = !requested;
+        requested = true;
+
+        last = last.thenCompose(previous -> {
+            if(first) return query(null);
+
+            // A page which isn't full was the last one
+            if(previous == null || previous.size() < pageSize) return CompletableFuture.completedFuture(null);
+
+            return query(previous.getObject(previous.size() - 1, keyColumn));
+        });
+
+        return last;
+    }
+
+    private @NotNull CompletableFuture<@Nullable RowBuffer> query(@Nullable Object after) {
+        final List<Object> values = new ArrayList<>(Arrays.asList(params));
+        final StringBuilder sql = new StringBuilder("SELECT * FROM `").append(table.getName()).append("`");
+
+        if(condition != null) sql.append(" WHERE (").append(condition).append(")");
+
+        if(after != null) {
+            sql.append(condition != null ? " AND " : " WHERE ").append("`").append(keyColumn).append("` > ?");
+            values.add(after);
+        }
+
+        sql.append(" ORDER BY `").append(keyColumn).append("` LIMIT ").append(pageSize);
+
+        return table.getConnection().queryDetached(properties, sql.toString(), values.toArray()).toCompletableFuture()
+                .thenApply(page -> page.isEmpty() ? null : page);
+    }
+
+}
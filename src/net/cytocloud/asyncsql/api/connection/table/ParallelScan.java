@@ -0,0 +1,293 @@
+package net.cytocloud.asyncsql.api.connection.table;
+
+import net.cytocloud.asyncsql.api.connection.result.Row;
+import net.cytocloud.asyncsql.api.connection.result.RowBuffer;
+import net.cytocloud.asyncsql.api.thread.AsyncSQLThreadWorker;
+import net.cytocloud.asyncsql.api.thread.future.DoneFuture;
+import net.cytocloud.asyncsql.api.thread.task.TaskProperties;
+import net.cytocloud.asyncsql.api.thread.task.future.exception.FutureException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Scans a table in key ranges at the same time. The ranges are split by the minimum and maximum of an integer key column
+ * (or by the row count for other key columns) and every range is walked by its own {@link KeysetPager}, so up to
+ * one query per range runs at the same time (limited by the pool size, see {@link net.cytocloud.asyncsql.api.util.ConnectionOptions#poolSize(int, int)}).
+ * The pages are merged ordered by key or in the order they arrive. At most two pages per range are held in memory.
+ * @apiNote With {@link net.cytocloud.asyncsql.api.connection.ExecutionMode#SERIAL} the connection has one physical connection, so the ranges are queried one after another
+ */
+public class ParallelScan implements Iterator<RowBuffer> {
+
+    private final @NotNull Table table;
+    private final @NotNull String keyColumn;
+    private final int partitions;
+    private final int pageSize;
+    private final @Nullable String condition;
+    private final @Nullable Object @NotNull [] params;
+    private final boolean ordered;
+    private final @NotNull TaskProperties properties;
+    /** Only accessed by the chain of {@link #nextPage()} */
+    private final List<KeysetPager> pagers = new ArrayList<>();
+    /** The requested page of every range which wasn't finished (null when it was handed out) */
+    private final List<CompletableFuture<RowBuffer>> inFlight = new ArrayList<>();
+    private @NotNull CompletableFuture<@Nullable RowBuffer> last;
+    private @Nullable RowBuffer iterated;
+
+    ParallelScan(@NotNull Table table, @NotNull String keyColumn, int partitions, int pageSize, @Nullable String condition, boolean ordered, @NotNull TaskProperties properties, @Nullable Object @Nullable [] params) {
+        if(partitions < 1) throw new IllegalArgumentException("The amount of partitions must be positive");
+        if(pageSize < 1) throw new IllegalArgumentException("The page size must be positive");
+
+        this.table=table;
+        this.keyColumn=keyColumn;
+        this.partitions=partitions;
+        this.pageSize=pageSize;
+        this.condition=condition;
+        this.ordered=ordered;
+        // Without partition key, so the ranges can run on different connections
+        this.properties=TaskProperties.of(properties.priority());
+        this.params=params == null ? new Object[0] : params;
+        // The query of the bounds of the ranges, when it failed every page fails
+        this.last = splitRanges().thenApply(v -> null);
+    }
+
+    /**
+     * @return A future of the next page of the merged scan (null when every range was scanned)
+     * @apiNote A failed page (or a failed split of the ranges) ends the scan, every following page fails with the same exception
+     */
+    public synchronized @NotNull CompletableFuture<@Nullable RowBuffer> nextPage() {
+        // Chained on the previous page, so a failure is passed on to every following page
+        last = last.thenCompose(v -> ordered ? nextOrdered() : nextUnordered());
+        return last;
+    }
+
+    /**
+     * Process every page of the scan. The consumer is never called at the same time for two pages.
+     * @param consumer The consumer of the pages (Called on the {@link AsyncSQLThreadWorker})
+     * @return A future which is done when every page was processed
+     */
+    public @NotNull DoneFuture forEachPage(@NotNull Consumer<RowBuffer> consumer) {
+        DoneFuture future = new DoneFuture();
+        future.setCallbackExecutor(table.getConnection().getOptions().getCallbackExecutor());
+
+        forEachPage(consumer, future);
+        return future;
+    }
+
+    /**
+     * Blocks until the next page arrived
+     * @return true when there is another page
+     */
+    @Override
+    public boolean hasNext() {
+        if(iterated == null) {
+            try {
+                iterated = nextPage().join();
+            } catch (CompletionException e) {
+                throw new FutureException(e.getCause() != null ? e.getCause() : e);
+            }
+        }
+
+        return iterated != null;
+    }
+
+    @Override
+    public @NotNull RowBuffer next() {
+        if(!hasNext()) throw new NoSuchElementException();
+
+        RowBuffer page = iterated;
+        iterated = null;
+
+        return page;
+    }
+
+    /**
+     * @return A blocking stream of the rows of every page
+     */
+    public @NotNull Stream<Row> toStream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .flatMap(page -> IntStream.range(0, page.size()).mapToObj(page::getRow));
+    }
+
+    private void forEachPage(@NotNull Consumer<RowBuffer> consumer, @NotNull DoneFuture future) {
+        nextPage().whenCompleteAsync((page, e) -> {
+            if(e != null) {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                future.notifyException(cause instanceof SQLException ? (SQLException) cause : new SQLException(cause));
+                return;
+            }
+
+            if(page == null) {
+                future.done();
+                return;
+            }
+
+            try {
+                consumer.accept(page);
+            } catch (RuntimeException ex) {
+                future.notifyException(new SQLException("The page consumer failed", ex));
+                return;
+            }
+
+            forEachPage(consumer, future);
+        }, AsyncSQLThreadWorker::runAsync);
+    }
+
+    /**
+     * The pages of the first unfinished range (the following ranges keep their first pages ready meanwhile)
+     */
+    private @NotNull CompletableFuture<@Nullable RowBuffer> nextOrdered() {
+        if(pagers.isEmpty()) return CompletableFuture.completedFuture(null);
+
+        CompletableFuture<RowBuffer> page = inFlight.get(0) != null ? inFlight.get(0) : pagers.get(0).nextPage();
+        inFlight.set(0, null);
+
+        return page.thenCompose(p -> {
+            if(p != null) return CompletableFuture.completedFuture(p);
+
+            pagers.remove(0);
+            inFlight.remove(0);
+
+            return nextOrdered();
+        });
+    }
+
+    /**
+     * The first page which arrived from any range
+     */
+    private @NotNull CompletableFuture<@Nullable RowBuffer> nextUnordered() {
+        if(pagers.isEmpty()) return CompletableFuture.completedFuture(null);
+
+        return CompletableFuture.anyOf(inFlight.toArray(new CompletableFuture<?>[0])).handle((v, e) -> null).thenCompose(v -> {
+            for(int i = 0; i < pagers.size(); i++) {
+                CompletableFuture<RowBuffer> page = inFlight.get(i);
+                if(!page.isDone()) continue;
+
+                // Throws the exception of a failed range
+                RowBuffer p = page.join();
+
+                if(p == null) {
+                    pagers.remove(i);
+                    inFlight.remove(i);
+                    return nextUnordered();
+                }
+
+                inFlight.set(i, pagers.get(i).nextPage());
+                return CompletableFuture.completedFuture(p);
+            }
+
+            return nextUnordered();
+        });
+    }
+
+    /**
+     * Load the bounds of the ranges and create their pagers
+     */
+    private @NotNull CompletableFuture<Void> splitRanges() {
+        final String where = condition == null ? "" : " WHERE " + condition;
+
+        return table.getConnection().queryDetached(properties, "SELECT MIN(`" + keyColumn + "`), MAX(`" + keyColumn + "`), COUNT(*) FROM `" + table.getName() + "`" + where, params).toCompletableFuture().thenCompose(bounds -> {
+            Object min = bounds.getObject(0, 0);
+            Object max = bounds.getObject(0, 1);
+            long count = bounds.getLong(0, 2);
+
+            if(min == null || max == null) return CompletableFuture.completedFuture(null);
+
+            BigInteger lower = toInteger(min);
+            BigInteger upper = toInteger(max);
+
+            if(lower != null && upper != null) {
+                List<Object> splits = new ArrayList<>();
+                BigInteger span = upper.subtract(lower).add(BigInteger.ONE);
+
+                for(int i = 1; i < partitions; i++) {
+                    BigInteger split = lower.add(span.multiply(BigInteger.valueOf(i)).divide(BigInteger.valueOf(partitions)));
+                    splits.add(split.bitLength() < 64 ? (Object) split.longValue() : split);
+                }
+
+                return CompletableFuture.completedFuture(splits);
+            }
+
+            // Not an integer column, the bounds are the keys at every n-th row
+            List<CompletableFuture<RowBuffer>> keys = new ArrayList<>();
+
+            for(int i = 1; i < partitions; i++)
+                keys.add(table.getConnection().queryDetached(properties, "SELECT `" + keyColumn + "` FROM `" + table.getName() + "`" + where + " ORDER BY `" + keyColumn + "` LIMIT 1 OFFSET " + (count * i / partitions), params).toCompletableFuture());
+
+            return CompletableFuture.allOf(keys.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+                List<Object> splits = new ArrayList<>();
+
+                for(CompletableFuture<RowBuffer> key : keys) {
+                    RowBuffer row = key.join();
+                    if(!row.isEmpty()) splits.add(row.getObject(0, 0));
+                }
+
+                return splits;
+            });
+        }).thenAccept(splits -> {
+            // No rows, nothing to scan
+            if(splits == null) return;
+
+            List<Object> distinct = new ArrayList<>();
+
+            for(Object split : splits)
+                if(!distinct.contains(split)) distinct.add(split);
+
+            createRanges(distinct);
+        });
+    }
+
+    private void createRanges(@NotNull List<Object> splits) {
+        for(int i = 0; i <= splits.size(); i++) {
+            List<Object> values = new ArrayList<>(Arrays.asList(params));
+            StringBuilder range = new StringBuilder(condition == null ? "" : "(" + condition + ")");
+
+            if(i > 0) {
+                range.append(range.length() == 0 ? "" : " AND ").append("`").append(keyColumn).append("` >= ?");
+                values.add(splits.get(i - 1));
+            }
+
+            if(i < splits.size()) {
+                range.append(range.length() == 0 ? "" : " AND ").append("`").append(keyColumn).append("` < ?");
+                values.add(splits.get(i));
+            }
+
+            KeysetPager pager = new KeysetPager(table, keyColumn, pageSize, range.length() == 0 ? null : range.toString(), true, properties, values.toArray());
+
+            pagers.add(pager);
+            inFlight.add(pager.nextPage());
+        }
+    }
+
+    private static @Nullable BigInteger toInteger(@NotNull Object value) {
+        if(value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) return BigInteger.valueOf(((Number) value).longValue());
+        if(value instanceof BigInteger) return (BigInteger) value;
+
+        if(value instanceof BigDecimal) {
+            try {
+                return ((BigDecimal) value).toBigIntegerExact();
+            } catch (ArithmeticException e) {
+                return null;
+            }
+        }
+
+        return null;
+    }
+
+}
@@ -2,15 +2,29 @@ package net.cytocloud.asyncsql.api.connection.table;
 
 import lombok.Getter;
 import net.cytocloud.asyncsql.api.connection.AsyncConnection;
+import net.cytocloud.asyncsql.api.connection.SQLDialect;
+import net.cytocloud.asyncsql.api.connection.result.RowBuffer;
+import net.cytocloud.asyncsql.api.connection.result.RowPublisher;
+import net.cytocloud.asyncsql.api.connection.schema.TableSchema;
+import net.cytocloud.asyncsql.api.thread.future.AsyncFuture;
 import net.cytocloud.asyncsql.api.thread.future.DoneFuture;
 import net.cytocloud.asyncsql.api.thread.future.ResponseFuture;
+import net.cytocloud.asyncsql.api.thread.task.TaskProperties;
 import net.cytocloud.asyncsql.api.thread.task.future.TaskResponseFuture;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.sql.ResultSet;
-import java.util.HashMap;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
 
 @Getter
 public class Table {
@@ -28,9 +42,38 @@ public class Table {
      * @return If the table has the entered entry
      */
     public ResponseFuture<Boolean> hasEntry(@NotNull String condition) {
+        return hasEntry(condition, TaskProperties.none());
+    }
+
+    /**
+     * @param condition To check for
+     * @param properties The properties of the task (e.g. the partition key)
+     * @return If the table has the entered entry
+     */
+    public ResponseFuture<Boolean> hasEntry(@NotNull String condition, @NotNull TaskProperties properties) {
+        ResponseFuture<Boolean> f = new ResponseFuture<>();
+        f.setCallbackExecutor(connection.getOptions().getCallbackExecutor());
+
+        selectAll(condition, properties).async(resultSet -> {
+            try(resultSet) {
+                f.response(resultSet.next());
+            }
+        }, AsyncFuture.INLINE);
+
+        return f;
+    }
+
+    /**
+     * @param condition To check for (with ? placeholders)
+     * @param properties The properties of the task (e.g. the partition key)
+     * @param params The values of the placeholders
+     * @return If the table has the entered entry
+     */
+    public @NotNull ResponseFuture<Boolean> hasEntryWhere(@NotNull String condition, @NotNull TaskProperties properties, @Nullable Object... params) {
         ResponseFuture<Boolean> f = new ResponseFuture<>();
+        f.setCallbackExecutor(connection.getOptions().getCallbackExecutor());
 
-        selectAll(condition).async(resultSet -> f.response(resultSet.next()));
+        connection.queryDetached(properties, "SELECT 1 FROM `" + name + "` WHERE " + condition + " LIMIT 1", params).async(rows -> f.response(!rows.isEmpty()), AsyncFuture.INLINE);
 
         return f;
     }
@@ -50,6 +93,16 @@ public class Table {
      * @apiNote The values aren't in the '' format
      */
     public @NotNull DoneFuture insert(@NotNull Map<String, String> columnValues) {
+        return insert(columnValues, TaskProperties.none());
+    }
+
+    /**
+     * INSERT INTO `table_name` (columns) VALUES (values)
+     * @param columnValues The values associated with the columns
+     * @param properties The properties of the task (e.g. the partition key)
+     * @apiNote The values aren't in the '' format
+     */
+    public @NotNull DoneFuture insert(@NotNull Map<String, String> columnValues, @NotNull TaskProperties properties) {
         StringBuilder columns = new StringBuilder();
         StringBuilder values = new StringBuilder();
 
@@ -64,7 +117,102 @@ public class Table {
         if(c.endsWith(", ")) c = c.substring(0, c.length()-2);
         if(v.endsWith(", ")) v = v.substring(0, v.length()-2);
 
-        return connection.update("INSERT INTO `" + name + "` (" + c + ") VALUES (" + v + ")");
+        return connection.update(properties, "INSERT INTO `" + name + "` (" + c + ") VALUES (" + v + ")");
+    }
+
+    /**
+     * INSERT INTO `table_name` (columns) VALUES (?, ...)
+     * @param columnValues The values associated with the columns (They are bound as parameters, so they aren't in the sql format)
+     * @param properties The properties of the task (e.g. the partition key)
+     */
+    public @NotNull DoneFuture insertValues(@NotNull Map<String, ?> columnValues, @NotNull TaskProperties properties) {
+        StringJoiner columns = new StringJoiner(", ");
+        StringJoiner values = new StringJoiner(", ");
+        List<Object> params = new ArrayList<>();
+
+        // Sorted, so the same columns always result in the same (cached) statement
+        new TreeMap<>(columnValues).forEach((k, v) -> {
+            columns.add("`" + k + "`");
+            values.add("?");
+            params.add(v);
+        });
+
+        return connection.update(properties, "INSERT INTO `" + name + "` (" + columns + ") VALUES (" + values + ")", params.toArray());
+    }
+
+    /**
+     * INSERT INTO `table_name` (columns) VALUES (?, ...), (?, ...), ... for chunks of rows
+     * @param rows The rows (every row needs the same columns, the values are bound as parameters)
+     * @param chunkSize The maximum amount of rows in one statement
+     * @param properties The properties of the statements (e.g. the priority)
+     * @param progress Called with the amount of inserted rows after every chunk (or null)
+     * @return A future which is done when every row was inserted (It fails with the exception of the first failed chunk, the following rows aren't inserted)
+     * @apiNote The next chunk is read when the previous one was inserted, so the stream is never held in memory at once. It is closed at the end.
+     */
+    public @NotNull DoneFuture insertAll(@NotNull Stream<? extends Map<String, ?>> rows, int chunkSize, @NotNull TaskProperties properties, @Nullable LongConsumer progress) {
+        if(chunkSize < 1) throw new IllegalArgumentException("The chunk size must be positive");
+
+        DoneFuture future = new DoneFuture();
+        future.setCallbackExecutor(connection.getOptions().getCallbackExecutor());
+
+        new BulkInsert(this, rows.iterator(), chunkSize, properties, progress, rows::close, future).next();
+
+        return future;
+    }
+
+    /**
+     * INSERT INTO `table_name` (columns) VALUES (?, ...), (?, ...), ... for chunks of rows
+     * @param rows The rows (every row needs the same columns, the values are bound as parameters)
+     * @param chunkSize The maximum amount of rows in one statement
+     * @return A future which is done when every row was inserted
+     * @see #insertAll(Stream, int, TaskProperties, LongConsumer)
+     */
+    public @NotNull DoneFuture insertAll(@NotNull Collection<? extends Map<String, ?>> rows, int chunkSize) {
+        return insertAll(rows.stream(), chunkSize, TaskProperties.none(), null);
+    }
+
+    /**
+     * Insert a row or update the row with the same key in one statement (see {@link SQLDialect#upsert(String, List, List, Collection)})
+     * @param columnValues The values associated with the columns (including the key columns)
+     * @param keyColumns The columns which identify the row
+     * @param properties The properties of the task (e.g. the partition key)
+     * @return A future which is done when the row was written
+     * @apiNote The values aren't in the '' format
+     * @see #upsertValues(Map, Collection, TaskProperties)
+     */
+    public @NotNull DoneFuture upsert(@NotNull Map<String, String> columnValues, @NotNull Collection<String> keyColumns, @NotNull TaskProperties properties) {
+        List<String> columns = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+
+        new TreeMap<>(columnValues).forEach((k, v) -> {
+            columns.add(k);
+            values.add(v);
+        });
+
+        return upsert(columns, values, new ArrayList<>(), keyColumns, properties);
+    }
+
+    /**
+     * Insert a row or update the row with the same key in one statement (see {@link SQLDialect#upsert(String, List, List, Collection)})
+     * @param columnValues The values associated with the columns including the key columns (They are bound as parameters, so they aren't in the sql format)
+     * @param keyColumns The columns which identify the row
+     * @param properties The properties of the task (e.g. the partition key)
+     * @return A future which is done when the row was written
+     * @apiNote With {@link SQLDialect#MYSQL} the key columns need a unique index (They are taken from the {@link net.cytocloud.asyncsql.api.connection.schema.SchemaCache}).
+     * Without one, the row is updated and inserted when nothing was updated, which takes a second round trip for new rows.
+     */
+    public @NotNull DoneFuture upsertValues(@NotNull Map<String, ?> columnValues, @NotNull Collection<String> keyColumns, @NotNull TaskProperties properties) {
+        List<String> columns = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+
+        new TreeMap<>(columnValues).forEach((k, v) -> {
+            columns.add(k);
+            values.add("?");
+            params.add(v);
+        });
+
+        return upsert(columns, values, params, keyColumns, properties);
     }
 
     /**
@@ -91,6 +239,17 @@ public class Table {
      * @param columnToValueMap A map which keys are column's (and the associated new value as value)
      */
     public @NotNull DoneFuture updateMultiple(@NotNull Map<String, String> columnToValueMap, @Nullable String condition) {
+        return updateMultiple(columnToValueMap, condition, TaskProperties.none());
+    }
+
+    /**
+     * UPDATE `table_name` SET `COLUMN1` = VALUE1 WHERE condition
+     * @apiNote The values aren't in the '' format
+     * @param condition The condition (behind WHERE)
+     * @param columnToValueMap A map which keys are column's (and the associated new value as value)
+     * @param properties The properties of the task (e.g. the partition key)
+     */
+    public @NotNull DoneFuture updateMultiple(@NotNull Map<String, String> columnToValueMap, @Nullable String condition, @NotNull TaskProperties properties) {
         StringBuilder toSet = new StringBuilder();
 
         columnToValueMap.forEach((k,v) -> toSet.append("`" + k + "` = " + v + ", "));
@@ -100,12 +259,34 @@ public class Table {
         if(ts.endsWith(", ")) ts = ts.substring(0, ts.length()-2);
 
         if(condition != null) {
-            return connection.update("UPDATE `" + name + "` SET " + ts + " WHERE " + condition);
+            return connection.update(properties, "UPDATE `" + name + "` SET " + ts + " WHERE " + condition);
         }else{
-            return connection.update("UPDATE `" + name + "` SET " + ts);
+            return connection.update(properties, "UPDATE `" + name + "` SET " + ts);
         }
     }
 
+    /**
+     * UPDATE `table_name` SET `COLUMN1` = ?, ... WHERE condition
+     * @param columnToValueMap A map which keys are column's (The values are bound as parameters, so they aren't in the sql format)
+     * @param condition The condition (behind WHERE) with ? placeholders
+     * @param properties The properties of the task (e.g. the partition key)
+     * @param params The values of the placeholders of the condition
+     */
+    public @NotNull DoneFuture updateWhere(@NotNull Map<String, ?> columnToValueMap, @Nullable String condition, @NotNull TaskProperties properties, @Nullable Object... params) {
+        StringJoiner toSet = new StringJoiner(", ");
+        List<Object> values = new ArrayList<>();
+
+        new TreeMap<>(columnToValueMap).forEach((k, v) -> {
+            toSet.add("`" + k + "` = ?");
+            values.add(v);
+        });
+
+        if(condition == null) return connection.update(properties, "UPDATE `" + name + "` SET " + toSet, values.toArray());
+
+        if(params != null) values.addAll(List.of(params));
+        return connection.update(properties, "UPDATE `" + name + "` SET " + toSet + " WHERE " + condition, values.toArray());
+    }
+
     /**
      * UPDATE `table_name` SET 'column' = newValue WHERE `replaceColumn` = replaceValue
      * @param column The column
@@ -135,10 +316,20 @@ public class Table {
      * @return A future object of the results
      */
     public @NotNull TaskResponseFuture<ResultSet> selectAll(@Nullable String condition) {
+        return selectAll(condition, TaskProperties.none());
+    }
+
+    /**
+     * Select all with the entered condition
+     * @param condition The condition
+     * @param properties The properties of the task (e.g. the partition key)
+     * @return A future object of the results
+     */
+    public @NotNull TaskResponseFuture<ResultSet> selectAll(@Nullable String condition, @NotNull TaskProperties properties) {
         if(condition == null) {
-            return connection.query("SELECT * FROM `" + name +"`");
+            return connection.query(properties, "SELECT * FROM `" + name +"`");
         }else {
-            return connection.query("SELECT * FROM `" + name +"` WHERE " + condition);
+            return connection.query(properties, "SELECT * FROM `" + name +"` WHERE " + condition);
         }
     }
 
@@ -149,29 +340,111 @@ public class Table {
      * @return A future object of the results
      */
     public @NotNull TaskResponseFuture<ResultSet> selectAll(@Nullable String condition, int limit) {
+        return selectAll(condition, limit, TaskProperties.none());
+    }
+
+    /**
+     * Select all with the entered condition and a limit
+     * @param condition The condition
+     * @param limit The limit
+     * @param properties The properties of the task (e.g. the partition key)
+     * @return A future object of the results
+     */
+    public @NotNull TaskResponseFuture<ResultSet> selectAll(@Nullable String condition, int limit, @NotNull TaskProperties properties) {
         if(condition == null) {
-            return connection.query("SELECT * FROM `" + name +"` LIMIT " + limit);
+            return connection.query(properties, "SELECT * FROM `" + name +"` LIMIT " + limit);
         }else {
-            return connection.query("SELECT * FROM `" + name +"` WHERE " + condition + " LIMIT " + limit);
+            return connection.query(properties, "SELECT * FROM `" + name +"` WHERE " + condition + " LIMIT " + limit);
         }
     }
 
     /**
-     * @return A map with the column name associated with the column data type
+     * SELECT * FROM `table_name` WHERE condition
+     * @param condition The condition with ? placeholders
+     * @param properties The properties of the task (e.g. the partition key)
+     * @param params The values of the placeholders
+     * @return A future object of the results
      */
-    public @NotNull ResponseFuture<Map<String, String>> getColumns() {
-        ResponseFuture<Map<String, String>> f = new ResponseFuture<>();
+    public @NotNull TaskResponseFuture<ResultSet> selectWhere(@NotNull String condition, @NotNull TaskProperties properties, @Nullable Object... params) {
+        return connection.query(properties, "SELECT * FROM `" + name + "` WHERE " + condition, params);
+    }
+
+    /**
+     * SELECT * FROM `table_name` WHERE condition LIMIT limit
+     * @param condition The condition with ? placeholders
+     * @param limit The limit
+     * @param properties The properties of the task (e.g. the partition key)
+     * @param params The values of the placeholders
+     * @return A future object of the results
+     */
+    public @NotNull TaskResponseFuture<ResultSet> selectWhere(@NotNull String condition, int limit, @NotNull TaskProperties properties, @Nullable Object... params) {
+        return connection.query(properties, "SELECT * FROM `" + name + "` WHERE " + condition + " LIMIT " + limit, params);
+    }
 
-        //SELECT DATA_TYPE from INFORMATION_SCHEMA.COLUMNS where table_schema = ’yourDatabaseName’ and table_name = ’yourTableName’
+    /**
+     * SELECT * FROM `table_name` WHERE condition, read completely on the connection thread
+     * @param condition The condition with ? placeholders (or null for every row)
+     * @param properties The properties of the task (e.g. the partition key)
+     * @param params The values of the placeholders
+     * @return A future of the rows (They can be read by any thread)
+     * @see AsyncConnection#queryDetached(TaskProperties, String, Object...)
+     */
+    public @NotNull TaskResponseFuture<RowBuffer> selectDetached(@Nullable String condition, @NotNull TaskProperties properties, @Nullable Object... params) {
+        if(condition == null) return connection.queryDetached(properties, "SELECT * FROM `" + name + "`", params);
+        return connection.queryDetached(properties, "SELECT * FROM `" + name + "` WHERE " + condition, params);
+    }
+
+    /**
+     * Walk the table page by page, ordered by a unique key column (see {@link KeysetPager})
+     * @param keyColumn The unique column which orders the pages
+     * @param pageSize The maximum amount of rows of a page
+     * @param condition The condition with ? placeholders (or null for every row)
+     * @param prefetch Query the next page while the current page is processed
+     * @param properties The properties of the queries (e.g. the priority)
+     * @param params The values of the placeholders
+     * @return The pager
+     */
+    public @NotNull KeysetPager pages(@NotNull String keyColumn, int pageSize, @Nullable String condition, boolean prefetch, @NotNull TaskProperties properties, @Nullable Object... params) {
+        return new KeysetPager(this, keyColumn, pageSize, condition, prefetch, properties, params);
+    }
 
-        connection.query("SELECT COLUMN_NAME, DATA_TYPE FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME = '" + name + "' ORDER BY ORDINAL_POSITION").async(s -> {
-            Map<String, String> columns = new HashMap<>();
+    /**
+     * Scan the table in key ranges at the same time (see {@link ParallelScan})
+     * @param keyColumn The unique column which is split into ranges (integer columns are split by value, other columns by row count)
+     * @param partitions The amount of ranges (Use at most the maximum pool size)
+     * @param pageSize The maximum amount of rows of a page
+     * @param condition The condition with ? placeholders (or null for every row)
+     * @param ordered Merge the pages ordered by the key column (otherwise in the order they arrive)
+     * @param properties The properties of the queries (Only the priority is used, the ranges aren't partitioned)
+     * @param params The values of the placeholders
+     * @return The scan
+     */
+    public @NotNull ParallelScan scan(@NotNull String keyColumn, int partitions, int pageSize, @Nullable String condition, boolean ordered, @NotNull TaskProperties properties, @Nullable Object... params) {
+        return new ParallelScan(this, keyColumn, partitions, pageSize, condition, ordered, properties, params);
+    }
 
-            while(s.next())
-                columns.put(s.getString("COLUMN_NAME"), s.getString("DATA_TYPE"));
+    /**
+     * Stream SELECT * FROM `table_name` WHERE condition without loading every row at once
+     * @param condition The condition with ? placeholders (or null for every row)
+     * @param fetchSize The amount of rows which are fetched at once ({@link RowPublisher#STREAMING} for MySQL row by row streaming)
+     * @param properties The properties of the task (e.g. the partition key)
+     * @param params The values of the placeholders
+     * @return A publisher of the rows
+     * @see AsyncConnection#stream(TaskProperties, int, String, Object...)
+     */
+    public @NotNull RowPublisher stream(@Nullable String condition, int fetchSize, @NotNull TaskProperties properties, @Nullable Object... params) {
+        if(condition == null) return connection.stream(properties, fetchSize, "SELECT * FROM `" + name + "`", params);
+        return connection.stream(properties, fetchSize, "SELECT * FROM `" + name + "` WHERE " + condition, params);
+    }
 
-            f.response(columns);
-        });
+    /**
+     * @return A map with the column name associated with the column data type (Cached, see {@link net.cytocloud.asyncsql.api.connection.schema.SchemaCache})
+     */
+    public @NotNull ResponseFuture<Map<String, String>> getColumns() {
+        ResponseFuture<Map<String, String>> f = new ResponseFuture<>();
+        f.setCallbackExecutor(connection.getOptions().getCallbackExecutor());
+
+        connection.getSchemaCache().get(name).thenAccept(schema -> f.response(schema == null ? new LinkedHashMap<>() : new LinkedHashMap<>(schema.columns())));
 
         return f;
     }
@@ -182,7 +455,8 @@ public class Table {
      * @param column The column to add
      */
     public @NotNull DoneFuture addColumn(@NotNull String column){
-        return connection.update("ALTER TABLE `"+ name + "` ADD " + column);
+        connection.getSchemaCache().invalidate(name);
+        return connection.update("ALTER TABLE `"+ name + "` ADD " + column).async(() -> connection.getSchemaCache().invalidate(name), AsyncFuture.INLINE);
     }
 
     /**
@@ -196,7 +470,8 @@ public class Table {
      * DROP TABLE `table_name`
      */
     public @NotNull DoneFuture delete() {
-        return connection.update("DROP TABLE `"+name+"`");
+        connection.getSchemaCache().invalidate(name);
+        return connection.update("DROP TABLE `"+name+"`").async(() -> connection.getSchemaCache().invalidate(name), AsyncFuture.INLINE);
     }
 
     /**
@@ -204,7 +479,84 @@ public class Table {
      * @param condition The condition
      */
     public @NotNull DoneFuture remove(@NotNull String condition) {
-        return connection.update("DELETE FROM `" + name + "` WHERE " + condition);
+        return remove(condition, TaskProperties.none());
+    }
+
+    /**
+     * DELETE FROM `table_name` WHERE CONDITION
+     * @param condition The condition
+     * @param properties The properties of the task (e.g. the partition key)
+     */
+    public @NotNull DoneFuture remove(@NotNull String condition, @NotNull TaskProperties properties) {
+        return connection.update(properties, "DELETE FROM `" + name + "` WHERE " + condition);
+    }
+
+    /**
+     * DELETE FROM `table_name` WHERE CONDITION
+     * @param condition The condition with ? placeholders
+     * @param properties The properties of the task (e.g. the partition key)
+     * @param params The values of the placeholders
+     */
+    public @NotNull DoneFuture removeWhere(@NotNull String condition, @NotNull TaskProperties properties, @Nullable Object... params) {
+        return connection.update(properties, "DELETE FROM `" + name + "` WHERE " + condition, params);
+    }
+
+    private @NotNull DoneFuture upsert(@NotNull List<String> columns, @NotNull List<String> values, @NotNull List<Object> params, @NotNull Collection<String> keyColumns, @NotNull TaskProperties properties) {
+        if(keyColumns.isEmpty() || !columns.containsAll(keyColumns)) throw new IllegalArgumentException("Every key column needs a value (keys: " + keyColumns + ", columns: " + columns + ")");
+
+        final SQLDialect dialect = connection.getOptions().getDialect();
+        final String upsert = dialect.upsert(name, columns, values, keyColumns);
+        final TableSchema schema = connection.getSchemaCache().getIfLoaded(name);
+
+        if(!dialect.requiresUniqueKey() || (schema != null && schema.isUnique(keyColumns))) {
+            if(params.isEmpty()) return connection.update(properties, upsert);
+            return connection.update(properties, upsert, params.toArray());
+        }
+
+        DoneFuture future = new DoneFuture();
+        future.setCallbackExecutor(connection.getOptions().getCallbackExecutor());
+
+        // The schema isn't loaded yet or there is no unique key, so everything happens in one task to keep the order of the statements
+        connection.executeConnectionTask(properties, c -> {
+            final TableSchema loaded = schema != null ? schema : connection.getSchemaCache().load(c, name);
+
+            if(loaded != null && loaded.isUnique(keyColumns)) {
+                executeUpdate(upsert, params);
+                future.done();
+                return;
+            }
+
+            StringJoiner toSet = new StringJoiner(", ");
+            StringJoiner condition = new StringJoiner(" AND ");
+            List<Object> updateParams = new ArrayList<>(params);
+
+            for(int i = 0; i < columns.size(); i++) {
+                toSet.add("`" + columns.get(i) + "` = " + values.get(i));
+
+                if(!keyColumns.contains(columns.get(i))) continue;
+
+                condition.add("`" + columns.get(i) + "` = " + values.get(i));
+                if(!params.isEmpty()) updateParams.add(params.get(i));
+            }
+
+            if(executeUpdate("UPDATE `" + name + "` SET " + toSet + " WHERE " + condition, updateParams) == 0) {
+                StringJoiner insertColumns = new StringJoiner(", ");
+                columns.forEach(column -> insertColumns.add("`" + column + "`"));
+
+                executeUpdate("INSERT INTO `" + name + "` (" + insertColumns + ") VALUES (" + String.join(", ", values) + ")", params);
+            }
+
+            future.done();
+        }).getFutureExceptionManager().async(future::notifyException);
+
+        return future;
+    }
+
+    /**
+     * Execute an update with the statement cache of the running task
+     */
+    private int executeUpdate(@NotNull String sql, @NotNull List<Object> params) throws SQLException {
+        return connection.getStatementCache().executeUpdate(sql, params.toArray());
     }
 
 
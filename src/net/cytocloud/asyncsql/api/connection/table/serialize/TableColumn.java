@@ -11,4 +11,9 @@ public @interface TableColumn {
 
     String columnName();
 
+    /**
+     * @return true when the column identifies the row, so {@link TableObject#submit()} can write it with one upsert statement
+     */
+    boolean key() default false;
+
 }
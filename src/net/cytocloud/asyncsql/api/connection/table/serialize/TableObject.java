@@ -4,6 +4,7 @@ import lombok.Getter;
 import net.cytocloud.asyncsql.api.connection.AsyncConnection;
 import net.cytocloud.asyncsql.api.connection.table.Table;
 import net.cytocloud.asyncsql.api.connection.table.serialize.parser.ColumnParser;
+import net.cytocloud.asyncsql.api.thread.task.TaskProperties;
 import org.jetbrains.annotations.NotNull;
 
 import java.lang.reflect.Field;
@@ -115,16 +116,18 @@ public abstract class TableObject {
     }
 
     /**
-     * @return A map with column name + the encoded object (as string)
+     * @return A map with column name + the encoded object (as string) of every table column with an annotated field
+     * @apiNote The columns of the table are cached (see {@link net.cytocloud.asyncsql.api.connection.schema.SchemaCache})
      */
     public @NotNull Map<String, String> getColumnValues() {
         HashMap<String, String> values = new HashMap<>();
         Map<String, Field> cntf = getColumnNameToField();
 
-        for (String column : table.getColumns().sync().values()) {
-            try {
-                Field f = cntf.get(column);
+        for (String column : table.getColumns().sync().keySet()) {
+            Field f = cntf.get(column);
+            if(f == null) continue;
 
+            try {
                 f.setAccessible(true);
                 values.put(column, columnParser.export(f.get(this), f.getType()));
             } catch (IllegalAccessException | ColumnParser.InvalidTypeException e) {
@@ -138,14 +141,30 @@ public abstract class TableObject {
     /**
      * Submit any changes that are made to the fields
      * UPDATE TABLE `table_name` SET COLUMN1 = VALUE1, COLUMN2 = VALUE2, ... WHERE condition
+     * @apiNote When columns are marked as {@link TableColumn#key()}, the row is written with one upsert statement.
+     * The condition should then select the row by these columns.
      */
     public void submit() {
-        if(!table.hasEntry(condition).sync()) {
-            table.insert(getColumnValues());
+        final List<String> keyColumns = getKeyColumns();
+
+        if(!keyColumns.isEmpty()) {
+            table.upsert(getColumnValues(), keyColumns, getTaskProperties());
             return;
         }
 
-        table.updateMultiple(getColumnValues(), condition);
+        if(!table.hasEntry(condition, getTaskProperties()).sync()) {
+            table.insert(getColumnValues(), getTaskProperties());
+            return;
+        }
+
+        table.updateMultiple(getColumnValues(), condition, getTaskProperties());
+    }
+
+    /**
+     * @return The names of the columns which are marked as {@link TableColumn#key()}
+     */
+    public @NotNull List<String> getKeyColumns() {
+        return getAnnotatedFields().stream().map(field -> field.getDeclaredAnnotation(TableColumn.class)).filter(TableColumn::key).map(TableColumn::columnName).collect(Collectors.toList());
     }
 
     /**
@@ -154,7 +173,16 @@ public abstract class TableObject {
      */
     public void load(){
         finishedLoading = false;
-        this.fillResults(table.selectAll(condition).sync());
+        this.fillResults(table.selectAll(condition, getTaskProperties()).sync());
+    }
+
+    /**
+     * The statements of this object are partitioned by the table and the condition,
+     * so they keep their order in {@link net.cytocloud.asyncsql.api.connection.ExecutionMode#PARTITIONED}
+     * @return The task properties for statements of this object
+     */
+    public @NotNull TaskProperties getTaskProperties() {
+        return TaskProperties.keyed(List.of(table.getName(), condition));
     }
 
 
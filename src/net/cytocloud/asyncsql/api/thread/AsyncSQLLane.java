@@ -0,0 +1,216 @@
+package net.cytocloud.asyncsql.api.thread;
+
+import lombok.Getter;
+import net.cytocloud.asyncsql.api.thread.timer.ScheduledTask;
+import net.cytocloud.asyncsql.api.thread.timer.TimerWheel;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An execution lane owns a thread with its own work processes. Work on one lane never waits for work on another lane.
+ */
+public class AsyncSQLLane {
+
+    private static final Map<String, AsyncSQLLane> sharedLanes = new ConcurrentHashMap<>();
+
+    @Getter
+    private final @NotNull String name;
+    private final boolean shutdownWhenIdle;
+    private final Map<String, Runnable> runners = new ConcurrentHashMap<>();
+    private final Map<String, ScheduledTask> repeatingRunners = new ConcurrentHashMap<>();
+    private final Queue<Runnable> singleRunners = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean signalled = new AtomicBoolean(false);
+    private volatile @Nullable Thread thread;
+    private volatile boolean stopping = false;
+
+    /**
+     * @param name The name of the lane thread
+     * @param shutdownWhenIdle Stop the thread when the last work process was removed (It will be restarted on new work)
+     */
+    protected AsyncSQLLane(@NotNull String name, boolean shutdownWhenIdle) {
+        this.name=name;
+        this.shutdownWhenIdle=shutdownWhenIdle;
+    }
+
+    /**
+     * Run something on repeat on this lane (scheduled by the {@link TimerWheel#getDefault() default timer} at a fixed rate)
+     * @param runnable The runnable
+     * @param period The time in milliseconds
+     * @throws RuntimeException When the runnable is already registered
+     */
+    public synchronized void runAsyncRepeating(@NotNull String name, @NotNull Runnable runnable, long period) {
+        if(hasWorkProcess(name)) throw new RuntimeException("The runnable is already registered");
+
+        repeatingRunners.put(name, TimerWheel.getDefault().scheduleAtFixedRate(runnable, period, period, TimeUnit.MILLISECONDS, this::runAsync));
+    }
+
+    /**
+     * Run something once on this lane
+     * @param runnable The run method
+     */
+    public void runAsync(@NotNull Runnable runnable) {
+        singleRunners.add(runnable);
+
+        synchronized(this) {
+            start();
+        }
+    }
+
+    /**
+     * Register a process which is executed every time the lane wakes up
+     * @param runnable The run method
+     * @param name The name of the runnable
+     * @throws RuntimeException When the runnable is already registered
+     * @apiNote The lane parks while there is nothing to do, call {@link #wakeup()} when the process has new work
+     */
+    public synchronized void addWorkProcess(@NotNull String name, @NotNull Runnable runnable) {
+        if(hasWorkProcess(name)) throw new RuntimeException("The runnable is already registered");
+
+        runners.put(name, runnable);
+        start();
+    }
+
+    /**
+     * @param name The name of the runnable
+     */
+    public synchronized void removeWorkProcess(@NotNull String name) {
+        runners.remove(name);
+
+        ScheduledTask repeating = repeatingRunners.remove(name);
+        if(repeating != null) repeating.cancel();
+
+        if(shutdownWhenIdle && runners.isEmpty() && repeatingRunners.isEmpty())
+            shutdown();
+    }
+
+    public boolean hasWorkProcess(@NotNull String name) {
+        return runners.containsKey(name) || repeatingRunners.containsKey(name);
+    }
+
+    /**
+     * Wake up the lane when it is parked, so that every work process will be executed
+     */
+    public void wakeup() {
+        Thread t = this.thread;
+
+        if(t == null) return;
+        if(signalled.compareAndSet(false, true)) LockSupport.unpark(t);
+    }
+
+    public boolean isActive() {
+        return thread != null && !stopping;
+    }
+
+    /**
+     * Stop the lane thread after the current iteration. Registered work processes are kept.
+     */
+    public synchronized void shutdown() {
+        Thread t = this.thread;
+        if(t == null) return;
+
+        this.stopping = true;
+        LockSupport.unpark(t);
+    }
+
+    /**
+     * Interrupt the lane thread immediately
+     */
+    public synchronized void interrupt() {
+        Thread t = this.thread;
+        if(t == null) return;
+
+        this.stopping = true;
+        t.interrupt();
+    }
+
+    private void start() {
+        if(this.thread != null) {
+            // The thread may be finishing its last iteration, keep it alive instead of starting a second one
+            this.stopping = false;
+            wakeup();
+            return;
+        }
+
+        Thread t = new Thread(this::work);
+        t.setName(name);
+
+        this.thread = t;
+        t.start();
+    }
+
+    private void work() {
+        try {
+            while(true) {
+                if(stopping) {
+                    synchronized(this) {
+                        if(stopping) {
+                            this.thread = null;
+                            this.stopping = false;
+                            return;
+                        }
+                    }
+                }
+
+                signalled.set(false);
+
+                Runnable runnable;
+                while((runnable = singleRunners.poll()) != null)
+                    run(runnable);
+
+                runners.values().forEach(AsyncSQLLane::run);
+
+                if(stopping || signalled.get() || !singleRunners.isEmpty()) continue;
+
+                // Sleep until new work is signalled (see #wakeup())
+                LockSupport.park(this);
+            }
+        } finally {
+            synchronized(this) {
+                // The thread died by an error, so the next work starts a new one
+                if(this.thread == Thread.currentThread()) {
+                    this.thread = null;
+                    this.stopping = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Run a runnable of the lane, an exception is reported instead of ending the lane thread
+     * @param runnable The runnable
+     */
+    private static void run(@NotNull Runnable runnable) {
+        try {
+            runnable.run();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Create a new lane which is only used by the caller
+     * @param name The name of the lane thread
+     * @return The lane (the thread stops when the last work process was removed)
+     */
+    public static @NotNull AsyncSQLLane create(@NotNull String name) {
+        return new AsyncSQLLane(name, true);
+    }
+
+    /**
+     * Get or create a lane which is shared by everyone using the same name
+     * @param name The name of the lane
+     * @return The shared lane
+     */
+    public static @NotNull AsyncSQLLane shared(@NotNull String name) {
+        return sharedLanes.computeIfAbsent(name, n -> new AsyncSQLLane("AsyncSQL-Lane-" + n, true));
+    }
+
+}
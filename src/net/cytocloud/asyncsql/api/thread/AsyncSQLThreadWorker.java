@@ -3,36 +3,19 @@ package net.cytocloud.asyncsql.api.thread;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
-
+/**
+ * The global lane of AsyncSQL. Every connection has its own {@link AsyncSQLLane}, this one only runs the general async work.
+ */
 public class AsyncSQLThreadWorker {
 
-    private static final @Nullable Thread thread;
-    private static final Map<String, Runnable> runners = new ConcurrentHashMap<>();
-    private static final List<String> toRemove = new ArrayList<>();
-    private static boolean isActive = false;
+    private static final @Nullable AsyncSQLLane lane;
 
     static {
         if(Thread.getAllStackTraces().keySet().stream().anyMatch(t -> t.getName().equals("AsyncSQL-ThreadWorker"))) {
-            thread = null;
+            lane = null;
         }else{
-            isActive = true;
-
-            thread = new Thread(() -> {
-                while(isActive) {
-                    runners.values().forEach(Runnable::run);
-
-                    if(toRemove.isEmpty()) continue;
-
-                    toRemove.forEach(runners::remove);
-                    toRemove.clear();
-                }
-            });
-
-            thread.setName("AsyncSQL-ThreadWorker");
-            thread.start();
+            lane = new AsyncSQLLane("AsyncSQL-ThreadWorker", false);
+            lane.runAsync(() -> {});
         }
     }
 
@@ -42,59 +25,62 @@ public class AsyncSQLThreadWorker {
      * @param period The time in milliseconds
      */
     public static synchronized void runAsyncRepeating(@NotNull String name, @NotNull Runnable runnable, long period) {
-        AtomicLong executeTime = new AtomicLong(System.currentTimeMillis() + period);
-
-        addWorkProcess(name, () -> {
-            if(executeTime.get() == System.currentTimeMillis()) {
-                runnable.run();
-                executeTime.set(System.currentTimeMillis() + period);
-            }
-        });
+        getLane().runAsyncRepeating(name, runnable, period);
     }
 
     /**
      * @param runnable The run method
-     * @throws RuntimeException When the thread is null or the runnable is already registered
+     * @throws RuntimeException When the thread is null
      */
-    public static synchronized void runAsync(@NotNull Runnable runnable) {
-        String name = UUID.randomUUID().toString();
-
-        addWorkProcess(name, runnable);
-        removeWorkProcess(name);
+    public static void runAsync(@NotNull Runnable runnable) {
+        getLane().runAsync(runnable);
     }
 
     /**
+     * Register a process which is executed every time the worker wakes up
      * @param runnable The run method
      * @param name The name of the runnable
      * @throws RuntimeException When the thread is null or the runnable is already registered
+     * @apiNote The worker parks while there is nothing to do, call {@link #wakeup()} when the process has new work
      */
     public static synchronized void addWorkProcess(@NotNull String name, @NotNull Runnable runnable) {
-        if(thread == null) throw new RuntimeException("The thread is null");
-        if(runners.containsKey(name)) throw new RuntimeException("The runnable is already registered");
-
-        runners.put(name, runnable);
+        getLane().addWorkProcess(name, runnable);
     }
 
     /**
      * @param name The name of the runnable
      */
     public static synchronized void removeWorkProcess(@NotNull String name) {
-        if(runners.containsKey(name)) toRemove.add(name);
+        if(lane != null) lane.removeWorkProcess(name);
     }
 
     public static boolean hasWorkProcess(@NotNull String name) {
-        return runners.containsKey(name);
+        return lane != null && lane.hasWorkProcess(name);
+    }
+
+    /**
+     * Wake up the worker when it is parked, so that every work process will be executed
+     */
+    public static void wakeup() {
+        if(lane != null) lane.wakeup();
     }
 
     public static boolean isThreadActive() {
-        return isActive;
+        return lane != null && lane.isActive();
     }
 
     public static void interrupt() {
-        isActive = false;
-        if(thread != null)
-            thread.interrupt();
+        if(lane != null)
+            lane.interrupt();
     }
 
+    /**
+     * @return The lane of the worker thread
+     * @throws RuntimeException When the thread is null
+     */
+    public static @NotNull AsyncSQLLane getLane() {
+        if(lane == null) throw new RuntimeException("The thread is null");
+        return lane;
+    }
 
 }
@@ -0,0 +1,66 @@
+package net.cytocloud.asyncsql.api.thread;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to virtual threads (JDK 21+) without requiring a newer language level
+ */
+public class VirtualThreads {
+
+    private static final @Nullable Method ofVirtual, name, factory, newThreadPerTaskExecutor;
+
+    static {
+        Method ov = null, n = null, f = null, e = null;
+
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+
+            ov = Thread.class.getMethod("ofVirtual");
+            n = builder.getMethod("name", String.class, long.class);
+            f = builder.getMethod("factory");
+            e = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+
+            // Virtual threads may exist as preview feature which is not enabled
+            ov.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError ex) {
+            ov = null;
+        }
+
+        ofVirtual = ov;
+        name = n;
+        factory = f;
+        newThreadPerTaskExecutor = e;
+    }
+
+    /**
+     * @return true when the running JDK supports virtual threads
+     */
+    public static boolean isSupported() {
+        return ofVirtual != null;
+    }
+
+    /**
+     * Create an executor which starts a new virtual thread for every task
+     * @param prefix The name prefix of the threads (a counter is appended)
+     * @return The executor
+     * @throws UnsupportedOperationException When virtual threads aren't supported
+     */
+    public static @NotNull ExecutorService newExecutor(@NotNull String prefix) {
+        if(ofVirtual == null || name == null || factory == null || newThreadPerTaskExecutor == null)
+            throw new UnsupportedOperationException("Virtual threads aren't supported by this JDK");
+
+        try {
+            Object builder = name.invoke(ofVirtual.invoke(null), prefix, 0L);
+            return (ExecutorService) newThreadPerTaskExecutor.invoke(null, factory.invoke(builder));
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Virtual threads aren't supported by this JDK", e);
+        }
+    }
+
+}
@@ -1,26 +1,81 @@
 package net.cytocloud.asyncsql.api.thread.future;
 
-import net.cytocloud.asyncsql.api.thread.AsyncSQLThreadWorker;
+import net.cytocloud.asyncsql.api.thread.timer.ScheduledTask;
+import net.cytocloud.asyncsql.api.thread.timer.TimerWheel;
 import net.cytocloud.asyncsql.api.util.Callable;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.UUID;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class AsyncFuture {
 
+    /** Runs callbacks on the thread which completes the future (Only for short callbacks which never block) */
+    public static final @NotNull Executor INLINE = Runnable::run;
+
     public static <T> @NotNull ResponseFuture<T> await(@NotNull Callable<Boolean> consumer, @NotNull T obj) {
         ResponseFuture<T> t = new ResponseFuture<>();
+        AtomicReference<ScheduledTask> task = new AtomicReference<>();
 
-        String uuid = UUID.randomUUID().toString();
-
-        AsyncSQLThreadWorker.runAsyncRepeating(uuid, () -> {
+        task.set(TimerWheel.getDefault().scheduleWithFixedDelay(() -> {
             if(!consumer.call()) return;
-            AsyncSQLThreadWorker.removeWorkProcess(uuid);
+
+            ScheduledTask scheduled = task.get();
+            if(scheduled != null) scheduled.cancel();
 
             t.response(obj);
-        }, 10);
+        }, 10, 10, TimeUnit.MILLISECONDS));
 
         return t;
     }
 
+    /**
+     * @param futures The futures to combine
+     * @return A future which completes when every future completed (exceptionally when one of them failed)
+     */
+    public static @NotNull CompletableFuture<Void> allOf(@NotNull ComposableFuture<?>... futures) {
+        return CompletableFuture.allOf(toCompletableFutures(futures));
+    }
+
+    /**
+     * @param futures The futures to combine
+     * @return A future which completes with the response of the first completed future
+     */
+    public static @NotNull CompletableFuture<Object> anyOf(@NotNull ComposableFuture<?>... futures) {
+        return CompletableFuture.anyOf(toCompletableFutures(futures));
+    }
+
+    /**
+     * @param future The future to copy
+     * @param executor The executor which completes the copy (null: the thread which completes the future)
+     * @return A copy of the future, so dependent stages of the copy run on the executor
+     */
+    public static <T> @NotNull CompletableFuture<T> completeOn(@NotNull CompletableFuture<T> future, @Nullable Executor executor) {
+        if(executor == null) return future.copy();
+
+        CompletableFuture<T> copy = new CompletableFuture<>();
+
+        future.whenComplete((t, e) -> executor.execute(() -> {
+            if(e == null) copy.complete(t);
+            else copy.completeExceptionally(e);
+        }));
+
+        return copy;
+    }
+
+    /**
+     * @return The executor or {@link #INLINE} when it is null
+     */
+    public static @NotNull Executor orInline(@Nullable Executor executor) {
+        return executor == null ? INLINE : executor;
+    }
+
+    private static @NotNull CompletableFuture<?>[] toCompletableFutures(@NotNull ComposableFuture<?>[] futures) {
+        return Arrays.stream(futures).map(ComposableFuture::toCompletableFuture).toArray(CompletableFuture[]::new);
+    }
+
 }
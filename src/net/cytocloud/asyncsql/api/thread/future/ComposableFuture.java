@@ -0,0 +1,57 @@
+package net.cytocloud.asyncsql.api.thread.future;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A future which can be composed without blocking a thread (see {@link AsyncFuture#allOf(ComposableFuture[])} to combine futures)
+ * @param <T> The type of the response
+ */
+public interface ComposableFuture<T> {
+
+    /**
+     * @return A new completable future which completes with this future (Completing it doesn't complete this future)
+     * @apiNote A failed task completes it exceptionally with the {@link java.sql.SQLException}
+     */
+    @NotNull CompletableFuture<T> toCompletableFuture();
+
+    default <U> @NotNull CompletableFuture<U> thenApply(@NotNull Function<? super T, ? extends U> function) {
+        return toCompletableFuture().thenApply(function);
+    }
+
+    default <U> @NotNull CompletableFuture<U> thenCompose(@NotNull Function<? super T, ? extends CompletionStage<U>> function) {
+        return toCompletableFuture().thenCompose(function);
+    }
+
+    default @NotNull CompletableFuture<Void> thenAccept(@NotNull Consumer<? super T> consumer) {
+        return toCompletableFuture().thenAccept(consumer);
+    }
+
+    /**
+     * @param function Recovers from an exception of the task
+     * @return A future which completes with the response or the recovered value
+     */
+    default @NotNull CompletableFuture<T> exceptionally(@NotNull Function<Throwable, ? extends T> function) {
+        return toCompletableFuture().exceptionally(function);
+    }
+
+    /**
+     * @return A future which completes exceptionally with a {@link java.util.concurrent.TimeoutException} after the time
+     */
+    default @NotNull CompletableFuture<T> orTimeout(long timeout, @NotNull TimeUnit unit) {
+        return toCompletableFuture().orTimeout(timeout, unit);
+    }
+
+    /**
+     * @return A future which completes with the entered value after the time
+     */
+    default @NotNull CompletableFuture<T> completeOnTimeout(T value, long timeout, @NotNull TimeUnit unit) {
+        return toCompletableFuture().completeOnTimeout(value, timeout, unit);
+    }
+
+}
@@ -1,59 +1,112 @@
 package net.cytocloud.asyncsql.api.thread.future;
 
+import lombok.Getter;
+import lombok.Setter;
 import net.cytocloud.asyncsql.api.thread.task.future.exception.FutureException;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
-public class DoneFuture {
+public class DoneFuture implements ComposableFuture<Void> {
 
-    private final List<Callable> callables = new ArrayList<>();
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+    /** The executor which runs the callables (null: the thread which completes the future) */
+    @Getter @Setter
+    private volatile @Nullable Executor callbackExecutor;
+    private final List<Runnable> callables = new ArrayList<>();
     private boolean isDone = false;
-    private SQLException exception = null;
 
+    /**
+     * Mark the future as done, every waiter wakes up immediately
+     * @apiNote Callables are still called when the task succeeds after an exception was notified (e.g. after a reconnect)
+     */
     public void done() {
-        callables.forEach(Callable::call);
-        isDone = true;
+        List<Runnable> waiting;
+
+        synchronized(callables) {
+            if(isDone) return;
+
+            isDone = true;
+            future.complete(null);
+
+            waiting = new ArrayList<>(callables);
+            callables.clear();
+        }
+
+        waiting.forEach(Runnable::run);
     }
 
+    /**
+     * @param done Called on the {@link #getCallbackExecutor() callback executor} when the future is done (immediately when it is already done)
+     * @return An instance of this
+     * @apiNote Callables are called in the order of registration
+     */
     public @NotNull DoneFuture async(@NotNull Callable done) {
-        if(isDone) {
-            done.call();
-            return this;
+        return async(done, AsyncFuture.orInline(callbackExecutor));
+    }
+
+    /**
+     * @param done Called when the future is done (immediately when it is already done)
+     * @param executor The executor which runs the callable (e.g. a main thread scheduler)
+     * @return An instance of this
+     */
+    public @NotNull DoneFuture async(@NotNull Callable done, @NotNull Executor executor) {
+        final Runnable dispatcher = () -> executor.execute(done::call);
+
+        synchronized(callables) {
+            if(!isDone) {
+                callables.add(dispatcher);
+                return this;
+            }
         }
 
-        callables.add(done);
+        dispatcher.run();
         return this;
     }
 
     public void sync() {
-        while(!isDone && exception == null){
-            try{
-                Thread.sleep(10);
-            }catch(InterruptedException ignored){}
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            throw new FutureException(e.getCause());
         }
-
-        if(isDone) return;
-        throw new FutureException(exception);
     }
 
     public void syncUntil(long milliseconds) {
-        long check = System.currentTimeMillis() + milliseconds;
+        try {
+            future.get(milliseconds, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new FutureException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new FutureException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FutureException(e);
+        }
+    }
 
-        while(!isDone && System.currentTimeMillis() < check && exception == null) {
-            try{
-                Thread.sleep(10);
-            }catch(InterruptedException ignored){}
+    public boolean isDone() {
+        synchronized(callables) {
+            return isDone;
         }
+    }
 
-        if(isDone) return;
-        throw new FutureException(exception);
+    @Override
+    public @NotNull CompletableFuture<Void> toCompletableFuture() {
+        return AsyncFuture.completeOn(future, callbackExecutor);
     }
 
     public void notifyException(@NotNull SQLException exception) {
-        this.exception=exception;
+        future.completeExceptionally(exception);
     }
 
     @FunctionalInterface
@@ -1,6 +1,7 @@
 package net.cytocloud.asyncsql.api.thread.future;
 
 import lombok.Getter;
+import lombok.Setter;
 import net.cytocloud.asyncsql.api.thread.task.ThrowableConsumer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -8,14 +9,22 @@ import org.jetbrains.annotations.Nullable;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
-public class ResponseFuture<T> {
+public class ResponseFuture<T> implements ComposableFuture<T> {
 
-    private @Nullable transient T value;
+    private final CompletableFuture<T> future = new CompletableFuture<>();
     @Getter
     private final @Nullable Consumer<SQLException> exceptionConsumer;
-    private final List<ThrowableConsumer<T, SQLException>> consumers = new ArrayList<>();
+    /** The executor which runs the consumers (null: the thread which completes the future) */
+    @Getter @Setter
+    private volatile @Nullable Executor callbackExecutor;
+    private final List<Consumer<T>> consumers = new ArrayList<>();
 
     public ResponseFuture() {
         this.exceptionConsumer=null;
@@ -25,16 +34,40 @@ public class ResponseFuture<T> {
         this.exceptionConsumer=exceptionConsumer;
     }
 
+    /**
+     * @param consumer Called with the response on the {@link #getCallbackExecutor() callback executor} (immediately when the response was already received)
+     * @apiNote Consumers are called in the order of registration
+     */
     public void async(@NotNull ThrowableConsumer<T, SQLException> consumer) {
-        consumers.add(consumer);
+        async(consumer, AsyncFuture.orInline(callbackExecutor));
     }
 
-    public @Nullable T syncUntil(long milliseconds) {
-        long check = System.currentTimeMillis() + milliseconds;
+    /**
+     * @param consumer Called with the response (immediately when the response was already received)
+     * @param executor The executor which runs the consumer (e.g. a main thread scheduler)
+     */
+    public void async(@NotNull ThrowableConsumer<T, SQLException> consumer, @NotNull Executor executor) {
+        final Consumer<T> dispatcher = t -> executor.execute(() -> accept(consumer, t));
 
-        while(getValue() == null && System.currentTimeMillis() < check);
+        synchronized(consumers) {
+            if(!future.isDone()) {
+                consumers.add(dispatcher);
+                return;
+            }
+        }
 
-        return value;
+        dispatcher.accept(future.join());
+    }
+
+    public @Nullable T syncUntil(long milliseconds) {
+        try {
+            return future.get(milliseconds, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return getValue();
+        }
     }
 
     public @NotNull T syncUntilElse(long milliseconds, T t) {
@@ -43,23 +76,42 @@ public class ResponseFuture<T> {
     }
 
     public @NotNull T sync() {
-        while(getValue() == null) {}
-        return value;
+        return future.join();
     }
 
+    /**
+     * Complete the future, every waiter wakes up immediately (Only the first response is accepted)
+     * @param t The response
+     */
     public void response(@NotNull T t) {
-        this.value=t;
-        consumers.forEach(consumer -> {
-            try {
-                consumer.accept(t);
-            } catch (SQLException e) {
-                if(exceptionConsumer != null)
-                    getExceptionConsumer().accept(e);
-            }
-        });
+        List<Consumer<T>> waiting;
+
+        synchronized(consumers) {
+            if(!future.complete(t)) return;
+
+            waiting = new ArrayList<>(consumers);
+            consumers.clear();
+        }
+
+        waiting.forEach(consumer -> consumer.accept(t));
+    }
+
+    public @Nullable T getValue() {
+        return future.getNow(null);
     }
 
-    public synchronized T getValue() {
-        return value;
+    @Override
+    public @NotNull CompletableFuture<T> toCompletableFuture() {
+        return AsyncFuture.completeOn(future, callbackExecutor);
     }
+
+    private void accept(@NotNull ThrowableConsumer<T, SQLException> consumer, T t) {
+        try {
+            consumer.accept(t);
+        } catch (SQLException e) {
+            if(exceptionConsumer != null)
+                exceptionConsumer.accept(e);
+        }
+    }
+
 }
@@ -0,0 +1,13 @@
+package net.cytocloud.asyncsql.api.thread.task;
+
+/**
+ * Defines what happens with a new task when the task queue of a connection is full
+ */
+public enum OverflowPolicy {
+
+    BLOCK,          //Block the caller until there is space in the queue, after the queue timeout a TaskRejectedException is thrown
+    FAIL,           //Throw a TaskRejectedException immediately
+    DROP_OLDEST,    //Drop the oldest waiting task (its future fails with an SQLTransientException) to make space for the new one
+    CALLER_RUNS     //Execute the task on the caller's thread (bypasses the queue and therefore its order). Tasks which have to keep their order (SERIAL, or PARTITIONED with a partition key) block like BLOCK
+
+}
@@ -0,0 +1,12 @@
+package net.cytocloud.asyncsql.api.thread.task;
+
+/**
+ * The priority of a connection task. Tasks with a higher priority are executed first.
+ */
+public enum TaskPriority {
+
+    INTERACTIVE,    //Latency sensitive tasks (e.g. lookups while a player is waiting)
+    NORMAL,         //The default priority
+    BACKGROUND      //Bulk work (e.g. uploading every cache), only executed before higher priorities when it waited too long
+
+}
@@ -0,0 +1,47 @@
+package net.cytocloud.asyncsql.api.thread.task;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Properties of a connection task
+ * @param partitionKey Tasks with the same key are executed one after another in submission order when the connection
+ *                     uses {@link net.cytocloud.asyncsql.api.connection.ExecutionMode#PARTITIONED} (null when the task has no order)
+ * @param priority The priority of the task (tasks with the same partition key keep their order regardless of the priority)
+ */
+public record TaskProperties(@Nullable Object partitionKey, @NotNull TaskPriority priority) {
+
+    private static final TaskProperties NONE = new TaskProperties(null, TaskPriority.NORMAL);
+
+    /**
+     * @param priority The new priority
+     * @return A copy of these properties with the entered priority
+     */
+    public @NotNull TaskProperties withPriority(@NotNull TaskPriority priority) {
+        return new TaskProperties(partitionKey, priority);
+    }
+
+    /**
+     * @return The properties of a task without partition key and with normal priority
+     */
+    public static @NotNull TaskProperties none() {
+        return NONE;
+    }
+
+    /**
+     * @param partitionKey The partition key (e.g. the selection value of a cached table row)
+     * @return The properties of a task with the entered partition key
+     */
+    public static @NotNull TaskProperties keyed(@Nullable Object partitionKey) {
+        return partitionKey == null ? NONE : new TaskProperties(partitionKey, TaskPriority.NORMAL);
+    }
+
+    /**
+     * @param priority The priority
+     * @return The properties of a task without partition key and with the entered priority
+     */
+    public static @NotNull TaskProperties of(@NotNull TaskPriority priority) {
+        return priority == TaskPriority.NORMAL ? NONE : new TaskProperties(null, priority);
+    }
+
+}
@@ -0,0 +1,298 @@
+package net.cytocloud.asyncsql.api.thread.task;
+
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The queue of pending connection tasks. When the queue is partitioned, only one task per partition key is handed
+ * out at a time, the following tasks with that key are held back until {@link #complete(Task)} was called.
+ * Ready tasks are handed out by {@link TaskPriority}, a lower priority task goes first when it waited longer than the starvation timeout.
+ */
+public class TaskQueue<E, I extends Throwable> {
+
+    private static final TaskPriority[] priorities = TaskPriority.values();
+
+    private final boolean partitioned;
+    @Getter
+    private final int capacity;
+    private final long starvationNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Deque<Task<E, I>>[] ready;
+    private final Map<Object, Deque<Task<E, I>>> activePartitions = new HashMap<>();
+    private int size = 0;
+    private boolean servedStarving = false;
+
+    /**
+     * @param partitioned Keep the submission order of tasks with the same partition key
+     */
+    public TaskQueue(boolean partitioned) {
+        this(partitioned, Integer.MAX_VALUE, 1000);
+    }
+
+    /**
+     * @param partitioned Keep the submission order of tasks with the same partition key
+     * @param capacity The maximum amount of pending tasks
+     * @param starvationTimeout The time in milliseconds after which a ready task is handed out regardless of its priority
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TaskQueue(boolean partitioned, int capacity, long starvationTimeout) {
+        if(capacity < 1) throw new IllegalArgumentException("The capacity must be positive");
+
+        this.partitioned=partitioned;
+        this.capacity=capacity;
+        this.starvationNanos=TimeUnit.MILLISECONDS.toNanos(starvationTimeout);
+        this.ready = new Deque[priorities.length];
+
+        for(int i = 0; i < priorities.length; i++)
+            this.ready[i] = new ArrayDeque<>();
+    }
+
+    /**
+     * Enqueue a task even when the capacity is reached
+     * @param task The task to enqueue
+     */
+    public void add(@NotNull Task<E, I> task) {
+        lock.lock();
+        try {
+            enqueue(task);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Enqueue a task when the capacity isn't reached
+     * @param task The task to enqueue
+     * @return false when the queue is full
+     */
+    public boolean offer(@NotNull Task<E, I> task) {
+        lock.lock();
+        try {
+            if(size >= capacity) return false;
+
+            enqueue(task);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Enqueue a task, waiting for free space when the capacity is reached
+     * @param task The task to enqueue
+     * @param timeout The maximum time to wait
+     * @param unit The unit of the timeout
+     * @return false when the queue was still full after the timeout
+     * @throws InterruptedException When the current thread was interrupted while waiting
+     */
+    public boolean offer(@NotNull Task<E, I> task, long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+
+        lock.lockInterruptibly();
+        try {
+            while(size >= capacity) {
+                if(nanos <= 0) return false;
+                nanos = notFull.awaitNanos(nanos);
+            }
+
+            enqueue(task);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Enqueue a task, dropping the oldest ready task of the lowest priority when the capacity is reached.
+     * When every ready task has a higher priority, the oldest task which waits for its partition is dropped instead.
+     * @param task The task to enqueue
+     * @return The dropped task (the entered task when only tasks with a higher priority could be dropped) or null when nothing was dropped
+     */
+    public @Nullable Task<E, I> offerDropOldest(@NotNull Task<E, I> task) {
+        lock.lock();
+        try {
+            Task<E, I> dropped = null;
+
+            if(size >= capacity) {
+                for(int i = priorities.length - 1; i >= task.getProperties().priority().ordinal() && dropped == null; i--)
+                    dropped = ready[i].pollFirst();
+
+                if(dropped != null) {
+                    // A ready task with a partition key holds its partition, the next task of the key becomes ready
+                    completeLocked(dropped);
+                }else if((dropped = pollOldestWaiting(task.getProperties().priority())) == null) {
+                    return task;
+                }
+
+                size--;
+            }
+
+            enqueue(task);
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The next task which can be executed or null when there is none
+     */
+    public @Nullable Task<E, I> poll() {
+        lock.lock();
+        try {
+            Task<E, I> task = pollReady();
+
+            if(task != null) {
+                size--;
+                notFull.signal();
+            }
+
+            return task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Mark a polled task as finished. The next task with the same partition key becomes ready.
+     * @param task The finished task
+     */
+    public void complete(@NotNull Task<E, I> task) {
+        if(partitionKey(task) == null) return;
+
+        lock.lock();
+        try {
+            completeLocked(task);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return true when there is a task which can be executed now
+     */
+    public boolean hasReady() {
+        lock.lock();
+        try {
+            for(Deque<Task<E, I>> deque : ready)
+                if(!deque.isEmpty()) return true;
+
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The amount of pending tasks (including tasks which wait for their partition)
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(@NotNull Task<E, I> task) {
+        final Object key = partitionKey(task);
+
+        size++;
+
+        if(key != null) {
+            Deque<Task<E, I>> waiting = activePartitions.get(key);
+
+            if(waiting != null) {
+                // Until the task is ready, this is the time it was enqueued (see pollOldestWaiting)
+                task.readyTime = System.nanoTime();
+                waiting.addLast(task);
+                return;
+            }
+
+            activePartitions.put(key, new ArrayDeque<>());
+        }
+
+        addReady(task);
+    }
+
+    private void addReady(@NotNull Task<E, I> task) {
+        task.readyTime = System.nanoTime();
+        ready[task.getProperties().priority().ordinal()].addLast(task);
+    }
+
+    private @Nullable Task<E, I> pollReady() {
+        final long now = System.nanoTime();
+        Deque<Task<E, I>> selected = null;
+        boolean starving = false;
+
+        for(Deque<Task<E, I>> deque : ready) {
+            Task<E, I> head = deque.peekFirst();
+            if(head == null) continue;
+
+            if(selected == null) {
+                selected = deque;
+                continue;
+            }
+
+            // A starving lower priority task goes first, but at most every second time so higher priorities keep progressing
+            if(!servedStarving && now - head.readyTime >= starvationNanos && head.readyTime - selected.peekFirst().readyTime < 0) {
+                selected = deque;
+                starving = true;
+            }
+        }
+
+        servedStarving = starving;
+        return selected == null ? null : selected.pollFirst();
+    }
+
+    /**
+     * @param priority The highest priority which can be dropped
+     * @return The oldest task which waits behind the active task of its partition or null when there is none
+     */
+    private @Nullable Task<E, I> pollOldestWaiting(@NotNull TaskPriority priority) {
+        Deque<Task<E, I>> oldest = null;
+
+        for(Deque<Task<E, I>> waiting : activePartitions.values()) {
+            Task<E, I> head = waiting.peekFirst();
+            if(head == null || head.getProperties().priority().ordinal() < priority.ordinal()) continue;
+
+            if(oldest == null || head.readyTime - oldest.peekFirst().readyTime < 0)
+                oldest = waiting;
+        }
+
+        return oldest == null ? null : oldest.pollFirst();
+    }
+
+    private void completeLocked(@NotNull Task<E, I> task) {
+        final Object key = partitionKey(task);
+        if(key == null) return;
+
+        Deque<Task<E, I>> waiting = activePartitions.get(key);
+        if(waiting == null) return;
+
+        Task<E, I> next = waiting.pollFirst();
+
+        if(next == null) {
+            activePartitions.remove(key);
+            return;
+        }
+
+        addReady(next);
+    }
+
+    private @Nullable Object partitionKey(@NotNull Task<E, I> task) {
+        return partitioned ? task.getProperties().partitionKey() : null;
+    }
+
+}
@@ -0,0 +1,16 @@
+package net.cytocloud.asyncsql.api.thread.task;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Thrown when a task can't be enqueued, because the task queue of the connection is full
+ */
+public class TaskRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public TaskRejectedException(@NotNull String message) {
+        super(message);
+    }
+
+}
@@ -2,6 +2,8 @@ package net.cytocloud.asyncsql.api.thread.task.future;
 
 import lombok.Getter;
 import lombok.Setter;
+import net.cytocloud.asyncsql.api.thread.future.AsyncFuture;
+import net.cytocloud.asyncsql.api.thread.future.ComposableFuture;
 import net.cytocloud.asyncsql.api.thread.task.Task;
 import net.cytocloud.asyncsql.api.thread.task.ThrowableConsumer;
 import org.jetbrains.annotations.NotNull;
@@ -11,35 +13,59 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
-public class TaskResponseFuture<Response> {
+public class TaskResponseFuture<Response> implements ComposableFuture<Response> {
 
     @Getter @Setter
     private @NotNull Consumer<SQLException> asyncExceptionHandler = Throwable::printStackTrace;
+    /** The executor which runs the response consumers (null: the thread which completes the future) */
     @Getter @Setter
+    private volatile @Nullable Executor callbackExecutor;
+    @Getter
     private @NotNull Task<Connection, SQLException> task;
-    private final List<ThrowableConsumer<@NotNull Response, SQLException>> responseConsumers = new ArrayList<ThrowableConsumer<@NotNull Response, SQLException>>();
+    private final CompletableFuture<Response> future = new CompletableFuture<>();
+    private final List<Consumer<@NotNull Response>> responseConsumers = new ArrayList<Consumer<@NotNull Response>>();
     private @Nullable Response response;
 
     public TaskResponseFuture() {}
     public TaskResponseFuture(@NotNull Task<Connection, SQLException> task) {
+        setTask(task);
+    }
+
+    /**
+     * @param task The task which sends the response, an exception of the task wakes up every sync waiter
+     */
+    public void setTask(@NotNull Task<Connection, SQLException> task) {
         this.task=task;
+        task.getFutureExceptionManager().async(future::completeExceptionally);
     }
 
     /**
      * Response to all consumers or every open sync waiters
      * @param response The response to send
+     * @apiNote Consumers are still called when the task succeeds after an exception (e.g. after a reconnect)
      */
     public void response(@NotNull Response response) {
-        this.response=response;
-        this.responseConsumers.forEach(responseConsumer -> {
-            try {
-                responseConsumer.accept(response);
-            } catch (SQLException e) {
-                this.asyncExceptionHandler.accept(e);
-            }
-        });
+        List<Consumer<@NotNull Response>> waiting;
+
+        synchronized(responseConsumers) {
+            if(this.response != null) return;
+
+            this.response=response;
+            future.complete(response);
+
+            waiting = new ArrayList<>(responseConsumers);
+            responseConsumers.clear();
+        }
+
+        waiting.forEach(responseConsumer -> responseConsumer.accept(response));
     }
 
     /**
@@ -48,15 +74,11 @@ public class TaskResponseFuture<Response> {
      * @return The response
      */
     public @NotNull Response sync() {
-        while(this.response == null && task.getFutureExceptionManager().checkForThrowing()) {
-            try {
-                Thread.sleep(10);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw task.getFutureExceptionManager().toFutureException();
         }
-
-        return this.response;
     }
 
     /**
@@ -66,17 +88,16 @@ public class TaskResponseFuture<Response> {
      * @return The response or null when the time was reached but nothing was received
      */
     public @Nullable Response syncUntil(long milliseconds) {
-        long time = System.currentTimeMillis() + milliseconds;
-
-        while(this.response == null && task.getFutureExceptionManager().checkForThrowing() && time > System.currentTimeMillis()) {
-            try {
-                Thread.sleep(10);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+        try {
+            return future.get(milliseconds, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw task.getFutureExceptionManager().toFutureException();
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return future.getNow(null);
         }
-
-        return this.response;
     }
 
     /**
@@ -94,22 +115,49 @@ public class TaskResponseFuture<Response> {
     }
 
     /**
-     * Asynchronously get of the response (When a response receives the entered consumer will be called)
+     * Asynchronously get of the response (When a response receives the entered consumer will be called on the {@link #getCallbackExecutor() callback executor})
      * @param responseConsumer The consumer which can receive responses
      * @return An instance of this
+     * @apiNote Consumers are called in the order of registration
      */
     public @NotNull TaskResponseFuture<Response> async(@NotNull ThrowableConsumer<@NotNull Response, SQLException> responseConsumer) {
-        if(this.response != null) {
-            try {
-                responseConsumer.accept(response);
-            } catch (SQLException e) {
-                this.asyncExceptionHandler.accept(e);
+        return async(responseConsumer, AsyncFuture.orInline(callbackExecutor));
+    }
+
+    /**
+     * Asynchronously get of the response (When a response receives the entered consumer will be called)
+     * @param responseConsumer The consumer which can receive responses
+     * @param executor The executor which runs the consumer (e.g. a main thread scheduler)
+     * @return An instance of this
+     */
+    public @NotNull TaskResponseFuture<Response> async(@NotNull ThrowableConsumer<@NotNull Response, SQLException> responseConsumer, @NotNull Executor executor) {
+        final Consumer<@NotNull Response> dispatcher = r -> executor.execute(() -> accept(responseConsumer, r));
+        final Response response;
+
+        synchronized(responseConsumers) {
+            response = this.response;
+
+            if(response == null) {
+                this.responseConsumers.add(dispatcher);
+                return this;
             }
-            return this;
         }
 
-        this.responseConsumers.add(responseConsumer);
+        dispatcher.accept(response);
         return this;
     }
 
+    @Override
+    public @NotNull CompletableFuture<Response> toCompletableFuture() {
+        return AsyncFuture.completeOn(future, callbackExecutor);
+    }
+
+    private void accept(@NotNull ThrowableConsumer<@NotNull Response, SQLException> responseConsumer, @NotNull Response response) {
+        try {
+            responseConsumer.accept(response);
+        } catch (SQLException e) {
+            this.asyncExceptionHandler.accept(e);
+        }
+    }
+
 }
@@ -12,9 +12,9 @@ import java.util.function.Consumer;
 public class FutureExceptionManager<T extends Throwable> {
 
     @Getter @Setter
-    private @NotNull Consumer<FutureException> onThrowConsumer = t -> {};
+    private volatile @NotNull Consumer<FutureException> onThrowConsumer = t -> {};
     @Getter
-    private @Nullable T throwable;
+    private volatile @Nullable T throwable;
     private final @NotNull List<Consumer<@NotNull T>> consumers = new ArrayList<>();
 
     public FutureExceptionManager() {
@@ -22,17 +22,26 @@ public class FutureExceptionManager<T extends Throwable> {
     }
 
     public void response(@NotNull T throwable) {
-        this.throwable=throwable;
-        this.consumers.forEach(consumer -> consumer.accept(throwable));
+        List<Consumer<@NotNull T>> waiting;
+
+        synchronized(consumers) {
+            this.throwable=throwable;
+            waiting = new ArrayList<>(consumers);
+            consumers.clear();
+        }
+
+        waiting.forEach(consumer -> consumer.accept(throwable));
     }
 
     public void async(@NotNull Consumer<@NotNull T> consumer) {
-        if(this.throwable != null) {
-            consumer.accept(this.throwable);
-            return;
+        T throwable;
+
+        synchronized(consumers) {
+            throwable = this.throwable;
+            if(throwable == null) consumers.add(consumer);
         }
 
-        consumers.add(consumer);
+        if(throwable != null) consumer.accept(throwable);
     }
 
     public boolean checkForThrowing() {
@@ -43,11 +52,21 @@ public class FutureExceptionManager<T extends Throwable> {
     }
 
     public void throwException() throws FutureException {
-        if(this.throwable == null) throw new NullPointerException("There is no throwable");
-        FutureException e = new FutureException(this.throwable);
+        throw toFutureException();
+    }
+
+    /**
+     * Wrap the throwable and notify the {@link #getOnThrowConsumer() throw consumer} (e.g. to reconnect)
+     * @return The exception which should be thrown to the waiter
+     */
+    public @NotNull FutureException toFutureException() {
+        T throwable = this.throwable;
+        if(throwable == null) throw new NullPointerException("There is no throwable");
+
+        FutureException e = new FutureException(throwable);
         getOnThrowConsumer().accept(e);
 
-        throw e;
+        return e;
     }
 
 }
@@ -0,0 +1,96 @@
+package net.cytocloud.asyncsql.api.thread.timer;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A handle of a task which was scheduled on a {@link TimerWheel}
+ */
+public class ScheduledTask {
+
+    @Getter(AccessLevel.NONE)
+    private final @NotNull TimerWheel wheel;
+    private final @NotNull Runnable runnable;
+    private final @NotNull Executor executor;
+    /** 0 for one-shot tasks, a positive value for fixed-rate and a negative value for fixed-delay tasks (in ticks) */
+    private final long period;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    /** 0 while scheduled, 1 when cancelled and 2 when a one-shot task fired */
+    private final AtomicInteger state = new AtomicInteger(0);
+    long deadline;
+
+    ScheduledTask(@NotNull TimerWheel wheel, @NotNull Runnable runnable, @NotNull Executor executor, long deadline, long period) {
+        this.wheel=wheel;
+        this.runnable=runnable;
+        this.executor=executor;
+        this.deadline=deadline;
+        this.period=period;
+    }
+
+    /**
+     * Cancel the task. A running execution isn't interrupted.
+     * @return false when the task was already cancelled or a one-shot task already fired
+     */
+    public boolean cancel() {
+        if(!state.compareAndSet(0, 1)) return false;
+
+        wheel.removed();
+        return true;
+    }
+
+    public boolean isCancelled() {
+        return state.get() == 1;
+    }
+
+    /**
+     * @return true when the task is executed periodically
+     */
+    public boolean isRepeating() {
+        return period != 0;
+    }
+
+    /**
+     * @return true when a one-shot task already fired
+     */
+    public boolean isExpired() {
+        return state.get() == 2;
+    }
+
+    /**
+     * Called by the timer thread when the deadline is reached
+     */
+    void fire() {
+        if(period == 0) {
+            if(!state.compareAndSet(0, 2)) return;
+
+            wheel.removed();
+            executor.execute(runnable);
+            return;
+        }
+
+        if(isCancelled()) return;
+
+        // The previous execution is still waiting or running, a repeating task never runs twice at the same time
+        if(!running.compareAndSet(false, true)) {
+            if(period > 0) wheel.reschedule(this, deadline + period);
+            return;
+        }
+
+        if(period > 0) wheel.reschedule(this, deadline + period);
+
+        executor.execute(() -> {
+            try {
+                if(!isCancelled()) runnable.run();
+            } finally {
+                running.set(false);
+                if(period < 0 && !isCancelled()) wheel.reschedule(this, wheel.deadline(-period * wheel.getTickNanos()));
+            }
+        });
+    }
+
+}
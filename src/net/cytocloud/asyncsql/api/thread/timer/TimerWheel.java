@@ -0,0 +1,312 @@
+package net.cytocloud.asyncsql.api.thread.timer;
+
+import lombok.Getter;
+import net.cytocloud.asyncsql.api.thread.AsyncSQLThreadWorker;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A hierarchical timer wheel. Scheduling and cancelling cost O(1), every task is moved down at most once per level
+ * until it fires. The timer thread only sleeps until the next occupied slot, so it is idle while nothing is due.
+ * Fired tasks are executed on an executor (by default the {@link AsyncSQLThreadWorker}).
+ */
+public class TimerWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 5;
+    /** Tasks further away are placed at the end of the top level and are placed again when they are cascaded */
+    private static final long MAX_DELTA = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private static volatile @Nullable TimerWheel defaultWheel;
+
+    private final @NotNull String name;
+    @Getter
+    private final long tickNanos;
+    private final long startTime = System.nanoTime();
+    private final @SuppressWarnings({"unchecked", "rawtypes"}) ArrayDeque<ScheduledTask>[][] wheel = new ArrayDeque[LEVELS][SLOTS];
+    private final Queue<ScheduledTask> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final @NotNull Thread thread;
+    private volatile long sleepingUntil = Long.MAX_VALUE;
+    private volatile boolean active = true;
+    /** Only accessed by the timer thread */
+    private long currentTick = 0;
+
+    /**
+     * @param name The name of the timer thread
+     * @param tick The resolution of the timer
+     * @param unit The unit of the resolution
+     */
+    public TimerWheel(@NotNull String name, long tick, @NotNull TimeUnit unit) {
+        if(tick <= 0) throw new IllegalArgumentException("The tick must be positive");
+
+        this.name=name;
+        this.tickNanos=unit.toNanos(tick);
+
+        for(int level = 0; level < LEVELS; level++)
+            for(int slot = 0; slot < SLOTS; slot++)
+                wheel[level][slot] = new ArrayDeque<>();
+
+        this.thread = new Thread(this::work);
+        this.thread.setName(name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Run a task once after a delay
+     * @param runnable The task
+     * @param delay The delay
+     * @param unit The unit of the delay
+     * @param executor The executor which runs the task
+     * @return The handle of the task
+     */
+    public @NotNull ScheduledTask schedule(@NotNull Runnable runnable, long delay, @NotNull TimeUnit unit, @NotNull Executor executor) {
+        return add(new ScheduledTask(this, runnable, executor, deadline(unit.toNanos(delay)), 0));
+    }
+
+    /**
+     * Run a task periodically. When an execution takes longer than the period, the missed executions are skipped.
+     * @param runnable The task
+     * @param initialDelay The delay of the first execution
+     * @param period The time between the start of two executions
+     * @param unit The unit of the delay and the period
+     * @param executor The executor which runs the task
+     * @return The handle of the task
+     */
+    public @NotNull ScheduledTask scheduleAtFixedRate(@NotNull Runnable runnable, long initialDelay, long period, @NotNull TimeUnit unit, @NotNull Executor executor) {
+        return add(new ScheduledTask(this, runnable, executor, deadline(unit.toNanos(initialDelay)), Math.max(1, toTicks(period, unit))));
+    }
+
+    /**
+     * Run a task periodically with a delay between the end of one and the start of the next execution
+     * @param runnable The task
+     * @param initialDelay The delay of the first execution
+     * @param delay The time between the end of an execution and the start of the next one
+     * @param unit The unit of the delays
+     * @param executor The executor which runs the task
+     * @return The handle of the task
+     */
+    public @NotNull ScheduledTask scheduleWithFixedDelay(@NotNull Runnable runnable, long initialDelay, long delay, @NotNull TimeUnit unit, @NotNull Executor executor) {
+        return add(new ScheduledTask(this, runnable, executor, deadline(unit.toNanos(initialDelay)), -Math.max(1, toTicks(delay, unit))));
+    }
+
+    /**
+     * @see #schedule(Runnable, long, TimeUnit, Executor)
+     */
+    public @NotNull ScheduledTask schedule(@NotNull Runnable runnable, long delay, @NotNull TimeUnit unit) {
+        return schedule(runnable, delay, unit, AsyncSQLThreadWorker::runAsync);
+    }
+
+    /**
+     * @see #scheduleAtFixedRate(Runnable, long, long, TimeUnit, Executor)
+     */
+    public @NotNull ScheduledTask scheduleAtFixedRate(@NotNull Runnable runnable, long initialDelay, long period, @NotNull TimeUnit unit) {
+        return scheduleAtFixedRate(runnable, initialDelay, period, unit, AsyncSQLThreadWorker::runAsync);
+    }
+
+    /**
+     * @see #scheduleWithFixedDelay(Runnable, long, long, TimeUnit, Executor)
+     */
+    public @NotNull ScheduledTask scheduleWithFixedDelay(@NotNull Runnable runnable, long initialDelay, long delay, @NotNull TimeUnit unit) {
+        return scheduleWithFixedDelay(runnable, initialDelay, delay, unit, AsyncSQLThreadWorker::runAsync);
+    }
+
+    /**
+     * @return The amount of scheduled tasks which weren't cancelled
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Stop the timer thread. Scheduled tasks won't fire anymore.
+     */
+    public void stop() {
+        active = false;
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * @return The timer which is used by AsyncSQL (1 millisecond resolution)
+     */
+    public static @NotNull TimerWheel getDefault() {
+        TimerWheel wheel = defaultWheel;
+        if(wheel != null) return wheel;
+
+        synchronized(TimerWheel.class) {
+            if(defaultWheel == null) defaultWheel = new TimerWheel("AsyncSQL-Timer", 1, TimeUnit.MILLISECONDS);
+            return defaultWheel;
+        }
+    }
+
+    /**
+     * @param delay The delay in nanoseconds
+     * @return The first tick which isn't before now + delay (a task never fires too early)
+     */
+    long deadline(long delay) {
+        return (System.nanoTime() - startTime + Math.max(0, delay) + tickNanos - 1) / tickNanos;
+    }
+
+    /**
+     * @return The current time in ticks since the start of the timer
+     */
+    private long currentTime() {
+        return (System.nanoTime() - startTime) / tickNanos;
+    }
+
+    void reschedule(@NotNull ScheduledTask task, long deadline) {
+        task.deadline = deadline;
+        pending.add(task);
+        wakeupBefore(deadline);
+    }
+
+    /**
+     * Called when a task was cancelled or a one-shot task fired. A cancelled task stays in its slot until the slot is processed.
+     */
+    void removed() {
+        size.decrementAndGet();
+    }
+
+    private @NotNull ScheduledTask add(@NotNull ScheduledTask task) {
+        size.incrementAndGet();
+        pending.add(task);
+        wakeupBefore(task.deadline);
+
+        return task;
+    }
+
+    private long toTicks(long time, @NotNull TimeUnit unit) {
+        return Math.max(0, (unit.toNanos(time) + tickNanos - 1) / tickNanos);
+    }
+
+    private void wakeupBefore(long deadline) {
+        if(deadline < sleepingUntil) LockSupport.unpark(thread);
+    }
+
+    private void work() {
+        while(active) {
+            long now = currentTime();
+
+            // Every tick until now is processed, so a late thread catches up without skipping tasks
+            while(true) {
+                transferPending();
+                fire(wheel[0][(int) (currentTick & MASK)]);
+
+                if(currentTick >= now) break;
+
+                currentTick++;
+                if((currentTick & MASK) == 0) cascade();
+            }
+
+            transferPending();
+
+            long next = nextOccupiedTick();
+
+            sleepingUntil = next;
+            if(!pending.isEmpty()) {
+                sleepingUntil = Long.MAX_VALUE;
+                continue;
+            }
+
+            if(next == Long.MAX_VALUE) {
+                LockSupport.park(this);
+            }else {
+                LockSupport.parkNanos(this, startTime + next * tickNanos - System.nanoTime());
+            }
+
+            sleepingUntil = Long.MAX_VALUE;
+        }
+    }
+
+    private void transferPending() {
+        ScheduledTask task;
+
+        while((task = pending.poll()) != null) {
+            if(task.isCancelled()) continue;
+            place(task);
+        }
+    }
+
+    private void place(@NotNull ScheduledTask task) {
+        long delta = task.deadline - currentTick;
+
+        if(delta <= 0) {
+            wheel[0][(int) (currentTick & MASK)].add(task);
+            return;
+        }
+
+        if(delta > MAX_DELTA) delta = MAX_DELTA;
+
+        long deadline = currentTick + delta;
+
+        for(int level = 0; level < LEVELS; level++) {
+            if(delta < 1L << (SLOT_BITS * (level + 1))) {
+                wheel[level][(int) ((deadline >>> (SLOT_BITS * level)) & MASK)].add(task);
+                return;
+            }
+        }
+    }
+
+    private void fire(@NotNull ArrayDeque<ScheduledTask> slot) {
+        int count = slot.size();
+
+        for(int i = 0; i < count; i++) {
+            ScheduledTask task = slot.poll();
+            if(task == null || task.isCancelled()) continue;
+
+            if(task.deadline > currentTick) {
+                // Placed here because its deadline was too far away for the wheel
+                place(task);
+                continue;
+            }
+
+            try {
+                task.fire();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Move the tasks of the next slot of every higher level into the levels below
+     */
+    private void cascade() {
+        for(int level = 1; level < LEVELS; level++) {
+            int index = (int) ((currentTick >>> (SLOT_BITS * level)) & MASK);
+            ArrayDeque<ScheduledTask> slot = wheel[level][index];
+
+            int count = slot.size();
+            for(int i = 0; i < count; i++) {
+                ScheduledTask task = slot.poll();
+                if(task != null && !task.isCancelled()) place(task);
+            }
+
+            if(index != 0) return;
+        }
+    }
+
+    /**
+     * @return The next tick at which the timer has to wake up (a slot in the first level or the next cascade)
+     */
+    private long nextOccupiedTick() {
+        if(size.get() == 0) return Long.MAX_VALUE;
+
+        for(long tick = currentTick + 1; ; tick++) {
+            if(!wheel[0][(int) (tick & MASK)].isEmpty()) return tick;
+            if((tick & MASK) == 0) return tick;
+        }
+    }
+
+}
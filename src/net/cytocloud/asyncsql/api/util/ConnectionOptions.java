@@ -0,0 +1,210 @@
+package net.cytocloud.asyncsql.api.util;
+
+import lombok.Getter;
+import net.cytocloud.asyncsql.api.connection.ExecutionMode;
+import net.cytocloud.asyncsql.api.connection.SQLDialect;
+import net.cytocloud.asyncsql.api.thread.task.OverflowPolicy;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Optional settings of an {@link net.cytocloud.asyncsql.api.connection.AsyncConnection}
+ */
+@Getter
+public class ConnectionOptions {
+
+    private @Nullable String laneName = null;
+    private @NotNull ExecutionMode executionMode = ExecutionMode.SERIAL;
+    private int minPoolSize = 1;
+    private int maxPoolSize = 1;
+    private long idleTimeout = 600000;
+    private int validationTimeout = 2;
+    private int statementCacheSize = 64;
+    private boolean virtualThreads = false;
+    private int queueCapacity = Integer.MAX_VALUE;
+    private @NotNull OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    private long queueTimeout = 10000;
+    private long starvationTimeout = 1000;
+    private int batchSize = 0;
+    private long batchWindow = 0;
+    private @Nullable Executor callbackExecutor = null;
+    private @NotNull SQLDialect dialect = SQLDialect.MYSQL;
+    private @Nullable String jdbcUrl = null;
+    private long streamTimeout = 60000;
+
+    /**
+     * Set the execution lane of the connection. Connections with the same lane name share one thread,
+     * a connection without lane name gets its own thread.
+     * @param laneName The name of the lane or null for an own lane
+     * @return An instance of this
+     */
+    public @NotNull ConnectionOptions lane(@Nullable String laneName) {
+        this.laneName=laneName;
+        return this;
+    }
+
+    /**
+     * Set how tasks are executed (see {@link ExecutionMode} for the ordering of each mode)
+     * @param executionMode The execution mode
+     * @return An instance of this
+     */
+    public @NotNull ConnectionOptions executionMode(@NotNull ExecutionMode executionMode) {
+        this.executionMode=executionMode;
+        return this;
+    }
+
+    /**
+     * Set the size of the connection pool (Not used by {@link ExecutionMode#SERIAL}, which has exactly one connection)
+     * @param minPoolSize The amount of connections which are always kept open
+     * @param maxPoolSize The maximum amount of connections and therefore of tasks running at the same time
+     * @return An instance of this
+     */
+    public @NotNull ConnectionOptions poolSize(int minPoolSize, int maxPoolSize) {
+        if(minPoolSize < 0 || maxPoolSize < 1 || minPoolSize > maxPoolSize) throw new IllegalArgumentException("Invalid pool size (min: " + minPoolSize + ", max: " + maxPoolSize + ")");
+
+        this.minPoolSize=minPoolSize;
+        this.maxPoolSize=maxPoolSize;
+        return this;
+    }
+
+    /**
+     * @param idleTimeout Idle connections above the minimum pool size are closed after this time (milliseconds)
+     * @return An instance of this
+     */
+    public @NotNull ConnectionOptions idleTimeout(long idleTimeout) {
+        this.idleTimeout=idleTimeout;
+        return this;
+    }
+
+    /**
+     * @param validationTimeout The time in seconds to validate a connection before it is used
+     * @return An instance of this
+     */
+    public @NotNull ConnectionOptions validationTimeout(int validationTimeout) {
+        this.validationTimeout=validationTimeout;
+        return this;
+    }
+
+    /**
+     * @param statementCacheSize The maximum amount of cached prepared statements per physical connection (0 to disable the cache)
+     * @return An instance of this
+     */
+    public @NotNull ConnectionOptions statementCacheSize(int statementCacheSize) {
+        if(statementCacheSize < 0) throw new IllegalArgumentException("The statement cache size can't be negative");
+
+        this.statementCacheSize=statementCacheSize;
+        return this;
+    }
+
+    /**
+     * Execute every task on its own virtual thread (JDK 21+). The amount of running tasks is still limited by the pool size
+     * ({@link ExecutionMode#SERIAL}: one task at a time). On older JDKs the tasks are executed as without this option.
+     * @param virtualThreads true to use virtual threads when they are supported
+     * @return An instance of this
+     */
+    public @NotNull ConnectionOptions virtualThreads(boolean virtualThreads) {
+        this.virtualThreads=virtualThreads;
+        return this;
+    }
+
+    /**
+     * Limit the amount of pending tasks of the connection (unbounded by default)
+     * @param queueCapacity The maximum amount of pending tasks
+     * @param overflowPolicy What happens with new tasks when the queue is full
+     * @return An instance of this
+     * @apiNote Tasks which are enqueued by a running task (e.g. in a callback) are always accepted, so the connection can't block itself
+     */
+    public @NotNull ConnectionOptions queueCapacity(int queueCapacity, @NotNull OverflowPolicy overflowPolicy) {
+        if(queueCapacity < 1) throw new IllegalArgumentException("The capacity must be positive");
+
+        this.queueCapacity=queueCapacity;
+        this.overflowPolicy=overflowPolicy;
+        return this;
+    }
+
+    /**
+     * @param queueTimeout The maximum time in milliseconds to wait for space in the queue with {@link OverflowPolicy#BLOCK}
+     * @return An instance of this
+     */
+    public @NotNull ConnectionOptions queueTimeout(long queueTimeout) {
+        this.queueTimeout=queueTimeout;
+        return this;
+    }
+
+    /**
+     * @param starvationTimeout The time in milliseconds after which a waiting task is executed before tasks with a higher priority
+     * @return An instance of this
+     */
+    public @NotNull ConnectionOptions starvationTimeout(long starvationTimeout) {
+        this.starvationTimeout=starvationTimeout;
+        return this;
+    }
+
+    /**
+     * Combine updates into JDBC batches (disabled by default). An update waits until the batch is full, the window is over
+     * or another task (e.g. a query) is executed, so the batch never overtakes it. Every update still completes its own future.
+     * @param batchSize The maximum amount of updates in one batch (0 or 1 to disable batching)
+     * @param batchWindow The maximum time in milliseconds an update waits for other updates
+     * @return An instance of this
+     * @apiNote Batched updates don't wait for space in the task queue, a batch counts as one task
+     */
+    public @NotNull ConnectionOptions batching(int batchSize, long batchWindow) {
+        if(batchSize < 0 || batchWindow < 0) throw new IllegalArgumentException("Invalid batching (size: " + batchSize + ", window: " + batchWindow + ")");
+
+        this.batchSize=batchSize;
+        this.batchWindow=batchWindow;
+        return this;
+    }
+
+    /**
+     * Set the executor which runs the callbacks of the futures of this connection (e.g. a main thread scheduler),
+     * so the connection threads only execute the sql work
+     * @param callbackExecutor The executor or null to run the callbacks on the thread which completes the future
+     * @return An instance of this
+     */
+    public @NotNull ConnectionOptions callbackExecutor(@Nullable Executor callbackExecutor) {
+        this.callbackExecutor=callbackExecutor;
+        return this;
+    }
+
+    /**
+     * @param dialect The sql dialect of the server (MySQL by default), it also builds the jdbc url
+     * @return An instance of this
+     */
+    public @NotNull ConnectionOptions dialect(@NotNull SQLDialect dialect) {
+        this.dialect=dialect;
+        return this;
+    }
+
+    /**
+     * Connect with an own jdbc url instead of the url which the dialect builds from the connection information
+     * (e.g. an embedded H2 database: jdbc:h2:mem:test;MODE=MySQL;DATABASE_TO_UPPER=FALSE)
+     * @param jdbcUrl The url including the login or null for the url of the dialect
+     * @return An instance of this
+     * @apiNote Set the matching {@link #dialect(SQLDialect)} as well
+     */
+    public @NotNull ConnectionOptions jdbcUrl(@Nullable String jdbcUrl) {
+        this.jdbcUrl=jdbcUrl;
+        return this;
+    }
+
+    /**
+     * @param streamTimeout The maximum time in milliseconds a streamed query waits for its subscriber to request rows before it is cancelled
+     * (The stream holds its connection meanwhile, see {@link net.cytocloud.asyncsql.api.connection.result.RowPublisher})
+     * @return An instance of this
+     */
+    public @NotNull ConnectionOptions streamTimeout(long streamTimeout) {
+        this.streamTimeout=streamTimeout;
+        return this;
+    }
+
+    /**
+     * @return New options with the default values
+     */
+    public static @NotNull ConnectionOptions defaults() {
+        return new ConnectionOptions();
+    }
+
+}